@@ -0,0 +1,52 @@
+-- Compares description searches with and without the pg_trgm index over a synthetic catalog.
+-- Runs in its own schema, so it can be pointed at any database: psql "$DB_URL" -f scripts/trigram_search_benchmark.sql
+\timing on
+
+DROP SCHEMA IF EXISTS trigram_benchmark CASCADE;
+CREATE SCHEMA trigram_benchmark;
+SET search_path = trigram_benchmark, public;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+
+CREATE TABLE products (
+    id UUID PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    barcode VARCHAR(13) NOT NULL,
+    sequence_code INTEGER NOT NULL
+);
+
+-- Descriptions are built like the real ones: category, brand, weight and a flavour
+INSERT INTO products (id, description, barcode, sequence_code)
+SELECT
+    md5(n::text)::uuid,
+    (ARRAY['ACHOC PO', 'BISC', 'CAFE', 'LEITE PO', 'OLEO', 'REFRIG', 'SAL', 'VINAGRE', 'MAIONESE', 'BALA'])[1 + n % 10]
+        ||' '||(ARRAY['NESCAU', 'TODDY', 'MARILAN', 'UTAM', 'NINHO', 'LIZA', 'ANTARCT', 'LEBRE', 'CASTELO', 'FINI', 'QUERO', 'BAUDUC'])[1 + (n / 10) % 12]
+        ||' '||(100 + (n * 7) % 900)||(ARRAY['G', 'ML'])[1 + n % 2]
+        ||' '||(ARRAY['CHOC', 'MORANGO', 'INTEG', 'PET', 'GOURMET', 'LEITE', 'PIMENTA', 'HERBAL', 'NEUT'])[1 + (n / 120) % 9]
+        ||' '||upper(substr(md5(n::text), 1, 6)),
+    lpad(n::text, 13, '7'),
+    n
+FROM generate_series(1, 1000000) AS n;
+
+ANALYZE products;
+
+\echo '--- Without the trigram index: every search reads the whole table'
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM products WHERE lower(description) LIKE lower('%nescau 4%') ORDER BY description LIMIT 10;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM products WHERE lower(description) LIKE lower('%nescau 4%');
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM products WHERE lower(description) LIKE lower('cafe utam%');
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM products WHERE lower(description) LIKE lower('%a1b2c3');
+
+-- Same statement SearchSchema runs on startup in trigram mode
+CREATE INDEX idx_products_description_trgm ON products USING gin (lower(description) gin_trgm_ops);
+ANALYZE products;
+
+\echo '--- With the trigram index: the same searches become bitmap index scans'
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM products WHERE lower(description) LIKE lower('%nescau 4%') ORDER BY description LIMIT 10;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM products WHERE lower(description) LIKE lower('%nescau 4%');
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM products WHERE lower(description) LIKE lower('cafe utam%');
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM products WHERE lower(description) LIKE lower('%a1b2c3');
+
+SELECT pg_size_pretty(pg_relation_size('products')) AS table_size,
+       pg_size_pretty(pg_relation_size('idx_products_description_trgm')) AS index_size;
+
+DROP SCHEMA trigram_benchmark CASCADE;
@@ -15,7 +15,7 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Pattern(regexp = "\\d+", message = "barcode must contain only numbers")
 @Size(min = 13, max = 13, message = "barcode must have 13 characters")
 @NotBlank(message = "barcode must not be blank")
-@Target({ElementType.PARAMETER, ElementType.FIELD})
+@Target({ElementType.PARAMETER, ElementType.FIELD, ElementType.TYPE_USE})
 @Retention(RUNTIME)
 @Constraint(validatedBy = {})
 @Documented
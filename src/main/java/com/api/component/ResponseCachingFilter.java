@@ -0,0 +1,190 @@
+package com.api.component;
+
+import com.api.entity.Product;
+import com.api.projection.CachedResponse;
+import com.api.service.CacheManager;
+import com.api.utility.CacheLinks;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+@RequiredArgsConstructor
+public class ResponseCachingFilter extends OncePerRequestFilter {
+
+    private static final int MINIMUM_SIZE_TO_GZIP = 1024;
+
+    private final CacheManager<Product, UUID> productCacheManager;
+    private final CacheManager<CachedResponse, String> responseCacheManager;
+    private volatile UUID generation;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull final HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+            || !request.getRequestURI().startsWith("/api/products")
+            || request.getRequestURI().startsWith("/api/products/export");
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull final HttpServletRequest request,
+        @NonNull final HttpServletResponse response,
+        @NonNull final FilterChain filterChain
+    ) throws ServletException, IOException {
+        final UUID currentGeneration = productCacheManager.getRef();
+        if (!currentGeneration.equals(generation)) {
+            generation = currentGeneration;
+            responseCacheManager.evictAll();
+        }
+
+        final String link = CacheLinks.of(CacheLinks.RESPONSE, buildRequestLine(request)+"@"+currentGeneration);
+        final boolean[] rendered = new boolean[1];
+        final Optional<List<CachedResponse>> cachedResponses;
+        try {
+            cachedResponses = responseCacheManager.sync(link, () -> {
+                rendered[0] = true;
+                return render(link, request, response, filterChain);
+            });
+        }
+        catch (RuntimeException ex) {
+            // A failure belongs to the request that rendered, the ones that joined it render on their own instead
+            if (!rendered[0]) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            if (ex instanceof RenderingException) {
+                if (ex.getCause() instanceof ServletException) throw (ServletException) ex.getCause();
+                throw (IOException) ex.getCause();
+            }
+            if (ex instanceof UncheckedIOException) throw ((UncheckedIOException) ex).getCause();
+            throw ex;
+        }
+
+        if (rendered[0]) return;
+        if (cachedResponses.isPresent()) write(cachedResponses.get().get(0), request, response);
+        else filterChain.doFilter(request, response);
+    }
+
+    private List<CachedResponse> render(
+        final String link,
+        final HttpServletRequest request,
+        final HttpServletResponse response,
+        final FilterChain filterChain
+    ) {
+        final ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            if (responseWrapper.getStatus() != HttpServletResponse.SC_OK) return Collections.emptyList();
+
+            final byte[] body = responseWrapper.getContentAsByteArray();
+            return List.of(
+                CachedResponse.builder()
+                    .link(link)
+                    .contentType(responseWrapper.getContentType())
+                    .cacheControl(responseWrapper.getHeader(HttpHeaders.CACHE_CONTROL))
+                    .eTag(responseWrapper.getHeader(HttpHeaders.ETAG))
+                    .lastModified(parseDate(responseWrapper.getHeader(HttpHeaders.LAST_MODIFIED)))
+                    .body(body)
+                    .gzippedBody(body.length < MINIMUM_SIZE_TO_GZIP ? null : gzip(body))
+                    .build()
+            );
+        }
+        catch (IOException | ServletException ex) {
+            throw new RenderingException(ex);
+        }
+        finally {
+            try {
+                responseWrapper.copyBodyToResponse();
+            }
+            catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private void write(
+        final CachedResponse cachedResponse,
+        final HttpServletRequest request,
+        final HttpServletResponse response
+    ) throws IOException {
+        if (Objects.nonNull(cachedResponse.getCacheControl()))
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cachedResponse.getCacheControl());
+        if (Objects.nonNull(cachedResponse.getETag()))
+            response.setHeader(HttpHeaders.ETAG, cachedResponse.getETag());
+        if (cachedResponse.getLastModified() >= 0)
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, cachedResponse.getLastModified());
+        if (new ServletWebRequest(request, response).checkNotModified(cachedResponse.getETag(), cachedResponse.getLastModified()))
+            return;
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cachedResponse.getContentType());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        final boolean sendGzipped = Objects.nonNull(cachedResponse.getGzippedBody()) && acceptsGzip(request);
+        if (sendGzipped) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        final byte[] body = sendGzipped ? cachedResponse.getGzippedBody() : cachedResponse.getBody();
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // Links in the body are absolute and built from these, so a response is only replayed to requests that would render it alike
+    private static final List<String> LINK_BUILDING_HEADERS = List.of(
+        "Forwarded", "X-Forwarded-Proto", "X-Forwarded-Host", "X-Forwarded-Port", "X-Forwarded-Prefix"
+    );
+
+    private static String buildRequestLine(final HttpServletRequest request) {
+        final StringBuilder requestLine = new StringBuilder()
+            .append(request.getScheme()).append("://").append(request.getServerName()).append(':').append(request.getServerPort());
+        for (final String header : LINK_BUILDING_HEADERS) {
+            final String value = request.getHeader(header);
+            if (Objects.nonNull(value)) requestLine.append('[').append(header).append('=').append(value).append(']');
+        }
+        requestLine.append(request.getRequestURI());
+        if (Objects.nonNull(request.getQueryString())) requestLine.append('?').append(request.getQueryString());
+        return requestLine.toString();
+    }
+
+    private static long parseDate(final String value) {
+        if (Objects.isNull(value)) return -1;
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.set(HttpHeaders.LAST_MODIFIED, value);
+        return httpHeaders.getLastModified();
+    }
+
+    private static boolean acceptsGzip(final HttpServletRequest request) {
+        final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return Objects.nonNull(acceptEncoding) && acceptEncoding.contains("gzip");
+    }
+
+    private static byte[] gzip(final byte[] body) throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(body.length / 4);
+        try (final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+            gzipOutputStream.write(body);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static final class RenderingException extends RuntimeException {
+
+        private RenderingException(final Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -1,21 +1,28 @@
 package com.api.configuration;
 
-import com.api.entity.Price;
+import com.api.component.ResponseCachingFilter;
 import com.api.entity.Product;
+import com.api.projection.CachedResponse;
+import com.api.projection.PriceWithInstant;
 import com.api.service.CacheManager;
+import com.api.service.CacheSettings;
 import com.api.service.interfaces.PriceService;
+import com.api.utility.Constants;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -28,11 +35,19 @@ import javax.mail.PasswordAuthentication;
 import javax.mail.Session;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Configuration
 public class BeansConfiguration {
 
+    private static final int REFRESH_QUEUE_CAPACITY = 256;
+
     @Bean
     public JavaMailSender javaMailSender() {
         final Properties props = new Properties();
@@ -71,7 +86,10 @@ public class BeansConfiguration {
     }
 
     @Bean
-    public RestTemplate restTemplate(final RestTemplateBuilder restTemplateBuilder) {
+    public RestTemplate restTemplate(
+        final RestTemplateBuilder restTemplateBuilder,
+        @Value("${api.upstream.concurrency:4}") final int upstreamConcurrency
+    ) {
         final int twoSeconds = (int) Duration.ofSeconds(2).toMillis();
 
         final RequestConfig requestConfig = RequestConfig
@@ -84,6 +102,7 @@ public class BeansConfiguration {
             .setDefaultRequestConfig(requestConfig)
             .setRedirectStrategy(DefaultRedirectStrategy.INSTANCE)
             .setDefaultCookieStore(cookieStore())
+            .setMaxConnPerRoute(upstreamConcurrency)
             .build();
 
         return restTemplateBuilder
@@ -92,14 +111,85 @@ public class BeansConfiguration {
             .build();
     }
 
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService upstreamExecutor(@Value("${api.upstream.concurrency:4}") final int upstreamConcurrency) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(upstreamConcurrency, runnable -> {
+            final Thread thread = new Thread(runnable, "upstream-fetcher-"+threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // A full queue rejects the refresh, and CacheManager keeps serving the stale entry until the next one gets through
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService cacheRefreshExecutor(@Value("${api.cache.refresh-concurrency:2}") final int refreshConcurrency) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(
+            refreshConcurrency,
+            refreshConcurrency,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+            runnable -> {
+                final Thread thread = new Thread(runnable, "cache-refresher-"+threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
     @Bean
-    public CacheManager<Product, UUID> productCacheManager() {
-        return new CacheManager<>(Product::getId);
+    public CacheManager<Product, UUID> productCacheManager(final ExecutorService cacheRefreshExecutor) {
+        final CacheSettings<Product> cacheSettings = CacheSettings.<Product>builder()
+            .name("products")
+            .maximumWeight(DataSize.ofMegabytes(32).toBytes())
+            .weigher(product -> 200L + 2L * product.getDescription().length())
+            .refreshAfterWrite(Duration.ofHours(12))
+            .expireAfterWrite(Duration.ofDays(2))
+            .staleWhileRevalidate(true)
+            .negativeTimeToLive(Duration.ofMinutes(30))
+            .refreshExecutor(cacheRefreshExecutor)
+            .build();
+        return new CacheManager<>(Product::getId, cacheSettings);
+    }
+
+    // The invalidation bus evicts a product's price history by link, never by key, so projections without an id are enough
+    @Bean
+    public CacheManager<PriceWithInstant, UUID> priceCacheManager(final ExecutorService cacheRefreshExecutor) {
+        final CacheSettings<PriceWithInstant> cacheSettings = CacheSettings.<PriceWithInstant>builder()
+            .name("prices")
+            .maximumWeight(DataSize.ofMegabytes(16).toBytes())
+            .weigher(price -> 160L)
+            .dailyRefreshAt(Constants.DAILY_PRICE_UPDATE)
+            .expireAfterWrite(Duration.ofDays(2))
+            .staleWhileRevalidate(true)
+            .refreshExecutor(cacheRefreshExecutor)
+            .build();
+        return new CacheManager<>(priceWithInstant -> null, cacheSettings);
+    }
+
+    @Bean
+    public CacheManager<CachedResponse, String> responseCacheManager() {
+        final CacheSettings<CachedResponse> cacheSettings = CacheSettings.<CachedResponse>builder()
+            .name("responses")
+            .maximumWeight(DataSize.ofMegabytes(16).toBytes())
+            .weigher(cachedResponse ->
+                200L + cachedResponse.getBody().length
+                    + (Objects.isNull(cachedResponse.getGzippedBody()) ? 0 : cachedResponse.getGzippedBody().length)
+            )
+            .build();
+        return new CacheManager<>(CachedResponse::getLink, cacheSettings);
     }
 
     @Bean
-    public CacheManager<Price, UUID> priceCacheManager() {
-        return new CacheManager<>(Price::getId);
+    @ConditionalOnProperty(name = "api.response-cache.enabled", havingValue = "true")
+    public ResponseCachingFilter responseCachingFilter(
+        final CacheManager<Product, UUID> productCacheManager,
+        final CacheManager<CachedResponse, String> responseCacheManager
+    ) {
+        return new ResponseCachingFilter(productCacheManager, responseCacheManager);
     }
 
     @Bean
@@ -0,0 +1,31 @@
+package com.api.controller;
+
+import com.api.projection.CacheStatistics;
+import com.api.service.CacheManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping(path = "/api")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class CacheController {
+
+    private final List<CacheManager<?, ?>> cacheManagers;
+
+    @GetMapping(path = "/caches", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<CacheStatistics>> getStatistics() {
+        return ResponseEntity.ok(
+            cacheManagers.stream()
+                .map(CacheManager::getStatistics)
+                .collect(Collectors.toList())
+        );
+    }
+}
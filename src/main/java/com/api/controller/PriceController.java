@@ -1,15 +1,17 @@
 package com.api.controller;
 
 import com.api.annotation.Barcode;
-import com.api.entity.Price;
 import com.api.projection.PriceWithInstant;
 import com.api.service.interfaces.PriceService;
+import com.api.service.interfaces.WatermarkService;
 import com.api.utility.Constants;
+import com.api.utility.EntityTags;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -18,9 +20,12 @@ import org.springframework.web.bind.annotation.*;
 import javax.validation.constraints.PositiveOrZero;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+
+import static com.api.utility.ConditionalRequests.isNotModifiedSince;
 
 @Validated
 @RestController
@@ -29,10 +34,12 @@ import java.util.stream.Collectors;
 public class PriceController {
 
     private final PriceService priceService;
+    private final WatermarkService watermarkService;
 
     @GetMapping(path = "/prices/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<PriceWithInstant> searchById(@PathVariable("id") final UUID id) {
-        return buildResponse(priceService.findById(id).toPriceWithInstant());
+        final PriceWithInstant priceWithInstant = priceService.findById(id);
+        return buildResponse(priceWithInstant, EntityTags.of(priceWithInstant), Optional.of(priceWithInstant.getInstant()));
     }
 
     @GetMapping(path = "/prices", params = {"barcode", "limit"}, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -40,16 +47,22 @@ public class PriceController {
         @RequestParam("barcode") @Barcode final String barcode,
         @PositiveOrZero @RequestParam(value = "limit", defaultValue = "0") final int limit
     ) {
-        final List<PriceWithInstant> listOfPrices = (
-            limit > 0
+        final Optional<Instant> latestPriceInstant = watermarkService.findLatestPriceByProductBarcode(barcode);
+        if (isNotModifiedSince(latestPriceInstant))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(calculateCacheControl())))
+                .lastModified(latestPriceInstant.get())
+                .build();
+
+        final List<PriceWithInstant> listOfPrices = limit > 0
             ? priceService.findByProductBarcode(barcode, PageRequest.of(0, limit, Sort.by("instant").descending()))
-            : priceService.findByProductBarcode(barcode, Sort.by("instant").descending())
-        )
-        .stream()
-        .map(Price::toPriceWithInstant)
-        .collect(Collectors.toList());
+            : priceService.findByProductBarcode(barcode, Sort.by("instant").descending());
 
-        return buildResponse(listOfPrices);
+        // Taken from the body rather than the watermark, so a cached history never goes out dated as newer than it is
+        final Optional<Instant> lastModified = listOfPrices.stream()
+            .map(PriceWithInstant::getInstant)
+            .max(Comparator.naturalOrder());
+        return buildResponse(listOfPrices, EntityTags.ofPrices(listOfPrices), lastModified);
     }
 
     @GetMapping(path = "/prices", params = "barcode", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -57,18 +70,20 @@ public class PriceController {
         return searchByProductBarcode(barcode, 0);
     }
 
-    private <B> ResponseEntity<B> buildResponse(final B body) {
+    private <B> ResponseEntity<B> buildResponse(final B body, final String eTag, final Optional<Instant> lastModified) {
         final CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(calculateCacheControl()));
-        return ResponseEntity.ok()
+        final ResponseEntity.BodyBuilder bodyBuilder = ResponseEntity.ok()
             .cacheControl(cacheControl)
-            .body(body);
+            .eTag(eTag);
+        lastModified.ifPresent(instant -> bodyBuilder.lastModified(instant));
+        return bodyBuilder.body(body);
     }
 
     private long calculateCacheControl() {
         final ZoneId timezone = ZoneId.of(Constants.TIMEZONE);
         final LocalDate tomorrow = LocalDate.now(timezone).plusDays(1);
-        final LocalTime fiveAm = LocalTime.of(5, 0);
-        final ZonedDateTime tomorrowAtFiveAm = ZonedDateTime.of( LocalDateTime.of(tomorrow, fiveAm), timezone);
+        final ZonedDateTime tomorrowAtFiveAm =
+            ZonedDateTime.of(LocalDateTime.of(tomorrow, Constants.DAILY_PRICE_UPDATE), timezone);
         return ChronoUnit.SECONDS.between(ZonedDateTime.now(timezone), tomorrowAtFiveAm);
     }
 }
\ No newline at end of file
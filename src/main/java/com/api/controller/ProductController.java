@@ -3,33 +3,51 @@ package com.api.controller;
 import com.api.annotation.Barcode;
 import com.api.annotation.ValidExpression;
 import com.api.entity.Product;
+import com.api.projection.BarcodeLookup;
 import com.api.projection.CustomPagination;
+import com.api.projection.ProductCursor;
 import com.api.projection.SimpleProduct;
 import com.api.projection.SimpleProductWithStatus;
-import com.api.service.CacheManager;
+import com.api.service.ProductExporter;
 import com.api.service.interfaces.ProductService;
+import com.api.service.interfaces.WatermarkService;
 import com.api.utility.DomainUtils;
-import lombok.Getter;
+import com.api.utility.EntityTags;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static com.api.utility.ConditionalRequests.isNotModifiedSince;
 import static com.api.utility.DomainUtils.calculateNextPage;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -41,78 +59,222 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 public class ProductController {
 
     private final ProductService productService;
-    private final CacheManager<Product, UUID> productCacheManager;
+    private final WatermarkService watermarkService;
 
     @GetMapping(path = "/products", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getAll() {
-        List<EntityModel<SimpleProduct>> responseBody =
-            mapAndAddLinks(productService.findAll(Sort.by("description").ascending()));
+        final Optional<Instant> lastModified = watermarkService.findLatestProductUpdate();
+        if (isNotModifiedSince(lastModified)) return notModified(lastModified);
 
-        return ResponseEntity.ok().headers(getCachingHeaders()).body(responseBody);
+        final List<Product> products = productService.findAll(Sort.by("description").ascending());
+        List<EntityModel<SimpleProduct>> responseBody = mapAndAddLinks(products);
+
+        return ResponseEntity.ok()
+            .headers(getCachingHeaders(EntityTags.ofProducts(products), lastModified))
+            .body(responseBody);
     }
 
     @GetMapping(path = "/products", params = "pag", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getAll(
-        @RequestParam(name = "pag") @Pattern(regexp = "\\d{1,2}-\\d{1,2}", message = "must match digit-digit") String pag
+        @RequestParam(name = "pag") @Pattern(regexp = "\\d{1,2}-\\d{1,2}", message = "must match digit-digit") String pag,
+        @RequestParam(name = "totals", required = false) Boolean totals
+    ) {
+        return feedWithLinks(
+            pag,
+            totals,
+            productService::findAll,
+            productService::findSliceOfAll,
+            (controller, nextPage) -> controller.getAll(nextPage, totals)
+        );
+    }
+
+    @GetMapping(path = "/products", params = {"limit", "!pag"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAllAfter(
+        @RequestParam(name = "after", required = false)
+        @Pattern(regexp = ProductCursor.PATTERN, message = "must match description,id") String after,
+        @RequestParam(name = "limit") @Min(1) @Max(99) int limit,
+        @RequestParam(name = "totals", defaultValue = "false") boolean totals
     ) {
-        final ProductData productData = new ProductData(pag, productService::findAll);
-        return feedWithLinks(productData.getProductPage(), controller -> controller.getAll(productData.getNextPage()));
+        final Optional<Instant> lastModified = watermarkService.findLatestProductUpdate();
+        if (isNotModifiedSince(lastModified)) return notModified(lastModified);
+
+        final Slice<Product> productSlice =
+            productService.findAllAfter(Optional.ofNullable(after).map(ProductCursor::parse), limit);
+        final Long totalOfItems = totals ? productService.count() : null;
+        final HttpHeaders cachingHeaders = getCachingHeaders(EntityTags.ofSlice(productSlice, totalOfItems), lastModified);
+        if (productSlice.getContent().isEmpty())
+            return ResponseEntity.ok().headers(cachingHeaders).body(Collections.emptyList());
+
+        final CustomPagination<EntityModel<SimpleProduct>> pagedModel =
+            CustomPagination.afterCursor(productSlice, mapAndAddLinks(productSlice.getContent()), totalOfItems);
+
+        final Product lastProduct = productSlice.getContent().get(productSlice.getNumberOfElements() - 1);
+        final String nextCursor = ProductCursor.of(lastProduct).toString();
+        pagedModel.addIf(productSlice.hasNext(),
+            () -> linkTo(methodOn(ProductController.class).getAllAfter(nextCursor, limit, totals))
+                .withRel("Next page"));
+
+        return ResponseEntity.ok().headers(cachingHeaders).body(pagedModel);
     }
 
     @GetMapping(path = "/products", params = {"pag", "contains"}, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getAllContainingDescription(
         @RequestParam(name = "pag") @Pattern(regexp = "\\d{1,2}-\\d{1,2}", message = "must match digit-digit") String pag,
-        @RequestParam("contains") @ValidExpression String contains
+        @RequestParam("contains") @ValidExpression String contains,
+        @RequestParam(name = "totals", required = false) Boolean totals
     ) {
-        final ProductData productData =
-            new ProductData(pag, pageable -> productService.findAllByDescriptionIgnoreCaseContaining(contains, pageable));
         return feedWithLinks(
-            productData.getProductPage(),
-            controller -> controller.getAllContainingDescription(productData.getNextPage(), contains)
+            pag,
+            totals,
+            pageable -> productService.findAllByDescriptionIgnoreCaseContaining(contains, pageable),
+            pageable -> productService.findSliceByDescriptionIgnoreCaseContaining(contains, pageable),
+            (controller, nextPage) -> controller.getAllContainingDescription(nextPage, contains, totals)
         );
     }
 
     @GetMapping(path = "/products", params = {"pag", "starts-with"}, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getAllStartingWithDescription(
         @RequestParam(name = "pag") @Pattern(regexp = "\\d{1,2}-\\d{1,2}", message = "must match digit-digit") String pag,
-        @RequestParam("starts-with") @ValidExpression String startsWith
+        @RequestParam("starts-with") @ValidExpression String startsWith,
+        @RequestParam(name = "totals", required = false) Boolean totals
     ) {
-        final ProductData productData =
-            new ProductData(pag, pageable -> productService.findAllByDescriptionIgnoreCaseStartingWith(startsWith, pageable));
         return feedWithLinks(
-            productData.getProductPage(),
-            controller -> controller.getAllStartingWithDescription(productData.getNextPage(), startsWith)
+            pag,
+            totals,
+            pageable -> productService.findAllByDescriptionIgnoreCaseStartingWith(startsWith, pageable),
+            pageable -> productService.findSliceByDescriptionIgnoreCaseStartingWith(startsWith, pageable),
+            (controller, nextPage) -> controller.getAllStartingWithDescription(nextPage, startsWith, totals)
         );
     }
 
     @GetMapping(path = "/products", params = {"pag", "ends-with"}, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getAllEndingWithDescription(
         @RequestParam(name = "pag") @Pattern(regexp = "\\d{1,2}-\\d{1,2}", message = "must match digit-digit") String pag,
-        @RequestParam("ends-with") @ValidExpression String endsWith
+        @RequestParam("ends-with") @ValidExpression String endsWith,
+        @RequestParam(name = "totals", required = false) Boolean totals
+    ) {
+        return feedWithLinks(
+            pag,
+            totals,
+            pageable -> productService.findAllByDescriptionIgnoreCaseEndingWith(endsWith, pageable),
+            pageable -> productService.findSliceByDescriptionIgnoreCaseEndingWith(endsWith, pageable),
+            (controller, nextPage) -> controller.getAllEndingWithDescription(nextPage, endsWith, totals)
+        );
+    }
+
+    private ResponseEntity<?> feedWithLinks(
+        final String pag,
+        final Boolean totals,
+        final Function<Pageable, Page<Product>> pageFunction,
+        final Function<Pageable, Slice<Product>> sliceFunction,
+        final BiFunction<ProductController, String, ResponseEntity<?>> linkToNextPage
     ) {
-        final ProductData productData =
-            new ProductData(pag, pageable -> productService.findAllByDescriptionIgnoreCaseEndingWith(endsWith, pageable));
+        final Optional<Instant> lastModified = watermarkService.findLatestProductUpdate();
+        if (isNotModifiedSince(lastModified)) return notModified(lastModified);
+
+        final Pageable pageable = DomainUtils.parsePage(pag, Sort.by("description"));
+        if (Boolean.FALSE.equals(totals)) {
+            final Slice<Product> productSlice = sliceFunction.apply(pageable);
+            return feedWithLinks(
+                productSlice,
+                getCachingHeaders(EntityTags.ofSlice(productSlice, null), lastModified),
+                content -> new CustomPagination<>(productSlice, content),
+                linkToNextPage
+            );
+        }
+        final Page<Product> productPage = pageFunction.apply(pageable);
         return feedWithLinks(
-            productData.getProductPage(),
-            controller -> controller.getAllEndingWithDescription(productData.getNextPage(), endsWith)
+            productPage,
+            getCachingHeaders(EntityTags.ofPage(productPage), lastModified),
+            content -> new CustomPagination<>(productPage, content),
+            linkToNextPage
         );
     }
 
-    private ResponseEntity<?> feedWithLinks(final Page<Product> productPage, final Function<ProductController, ResponseEntity<?>> function) {
-        if (productPage.getContent().isEmpty())
-            return ResponseEntity.ok().headers(getCachingHeaders()).body(Collections.emptyList());
+    private ResponseEntity<?> feedWithLinks(
+        final Slice<Product> productSlice,
+        final HttpHeaders cachingHeaders,
+        final Function<List<EntityModel<SimpleProduct>>, CustomPagination<EntityModel<SimpleProduct>>> paginationFunction,
+        final BiFunction<ProductController, String, ResponseEntity<?>> linkToNextPage
+    ) {
+        if (productSlice.getContent().isEmpty())
+            return ResponseEntity.ok().headers(cachingHeaders).body(Collections.emptyList());
 
         CustomPagination<EntityModel<SimpleProduct>> pagedModel =
-            new CustomPagination<>(productPage, mapAndAddLinks(productPage.getContent()));
+            paginationFunction.apply(mapAndAddLinks(productSlice.getContent()));
+
+        final String nextPage = calculateNextPage(productSlice);
+        pagedModel.addIf(productSlice.hasNext(),
+            () -> linkTo(linkToNextPage.apply(methodOn(ProductController.class), nextPage))
+                .withRel("Next page"));
+
+        return ResponseEntity.ok().headers(cachingHeaders).body(pagedModel);
+    }
+
+    @GetMapping(path = "/products/export")
+    public ResponseEntity<StreamingResponseBody> export(
+        @RequestParam(name = "format", defaultValue = "ndjson")
+        @Pattern(regexp = "ndjson|csv", message = "format must be either ndjson or csv") String format,
+        @RequestParam(name = "latest-price", defaultValue = "false") boolean withLatestPrice
+    ) {
+        final ProductExporter.Format exportFormat = ProductExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        final ContentDisposition contentDisposition = ContentDisposition.attachment()
+            .filename("products."+exportFormat.getExtension())
+            .build();
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+            .body(outputStream -> productService.exportAll(exportFormat, withLatestPrice, outputStream));
+    }
+
+    @GetMapping(path = "/products/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> suggest(
+        @RequestParam("q") @NotBlank @Size(max = 32) String q,
+        @RequestParam(name = "limit", defaultValue = "10") @Min(1) @Max(20) int limit
+    ) {
+        final List<SimpleProduct> suggestions = productService.suggest(q, limit)
+            .stream()
+            .map(Product::toSimpleProduct)
+            .collect(Collectors.toList());
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)))
+            .body(suggestions);
+    }
 
-        pagedModel.addIf(productPage.hasNext(),
-            () -> linkTo(function.apply(methodOn(ProductController.class))).withRel("Next page"));
+    @GetMapping(path = "/products/similar", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAllSimilarToDescription(
+        @RequestParam("q") @NotBlank @Size(max = 64) String q,
+        @RequestParam(name = "limit", defaultValue = "10") @Min(1) @Max(50) int limit
+    ) {
+        final List<SimpleProduct> similarProducts = productService.findAllByDescriptionSimilarTo(q, limit)
+            .stream()
+            .map(Product::toSimpleProduct)
+            .collect(Collectors.toList());
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)))
+            .body(similarProducts);
+    }
 
-        return ResponseEntity.ok().headers(getCachingHeaders()).body(pagedModel);
+    @PostMapping(path = "/products/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAllByBarcode(@RequestBody @NotEmpty @Size(max = 200) List<@Barcode String> barcodes) {
+        final List<BarcodeLookup> barcodeLookups = productService.getAllByBarcodeAndSaveIfNecessary(barcodes)
+            .entrySet()
+            .stream()
+            .map(lookup -> BarcodeLookup.builder()
+                .barcode(lookup.getKey())
+                .status(lookup.getValue().getHttpStatus().value())
+                .product(lookup.getValue().getSimpleProduct())
+                .build()
+            )
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(barcodeLookups);
     }
 
     @GetMapping(path = "/products/{barcode}", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> getByBarcode(@PathVariable("barcode") @Barcode String barcode) {
+        final Optional<Instant> lastModified = watermarkService.findProductUpdateByBarcode(barcode);
+        if (isNotModifiedSince(lastModified)) return notModified(lastModified);
+
         final SimpleProductWithStatus simpleProductWithStatus = productService.getByBarcodeAndSaveIfNecessary(barcode);
 
         final Link linkToPrices = linkTo(methodOn(PriceController.class).searchByProductBarcode(barcode))
@@ -124,17 +286,27 @@ public class ProductController {
 
         return ResponseEntity
             .status(simpleProductWithStatus.getHttpStatus())
-            .headers(getCachingHeaders())
+            .headers(getCachingHeaders(EntityTags.of(simpleProductWithStatus.getSimpleProduct()), lastModified))
             .body(simpleProductModel);
     }
 
-    private HttpHeaders getCachingHeaders() {
+    private HttpHeaders getCachingHeaders(final String eTag, final Optional<Instant> lastModified) {
+        final HttpHeaders httpHeaders = getCachingHeaders(lastModified);
+        httpHeaders.setETag(eTag);
+        return httpHeaders;
+    }
+
+    private HttpHeaders getCachingHeaders(final Optional<Instant> lastModified) {
         final HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.setCacheControl("no-cache, max-age=0, must-revalidate");
-        httpHeaders.setETag("\""+productCacheManager.getRef().toString().replace("-", "")+"\"");
+        lastModified.ifPresent(httpHeaders::setLastModified);
         return httpHeaders;
     }
 
+    private ResponseEntity<?> notModified(final Optional<Instant> lastModified) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(getCachingHeaders(lastModified)).build();
+    }
+
     private List<EntityModel<SimpleProduct>> mapAndAddLinks(List<Product> inputList) {
          return inputList
             .stream()
@@ -152,16 +324,4 @@ public class ProductController {
             })
             .collect(Collectors.toList());
     }
-
-    @Getter
-    private static class ProductData {
-        private final Page<Product> productPage;
-        private final String nextPage;
-
-        private ProductData(final String pag, final Function<Pageable, Page<Product>> function) {
-            final Pageable pageable = DomainUtils.parsePage(pag, Sort.by("description"));
-            this.productPage = function.apply(pageable);
-            this.nextPage = calculateNextPage(productPage);
-        }
-    }
 }
\ No newline at end of file
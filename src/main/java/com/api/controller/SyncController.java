@@ -0,0 +1,38 @@
+package com.api.controller;
+
+import com.api.projection.SyncCursor;
+import com.api.projection.SyncDelta;
+import com.api.service.interfaces.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.Objects;
+
+@RestController
+@RequestMapping(path = "/api")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping(path = "/sync", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<SyncDelta> getChangesSince(
+        @RequestParam(name = "since", required = false) final Instant since,
+        @RequestParam(name = "cursor", required = false) final SyncCursor cursor
+    ) {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            .body(Objects.nonNull(cursor)
+                ? syncService.findChangesAfter(cursor)
+                : syncService.findChangesSince(Objects.requireNonNullElse(since, Instant.EPOCH))
+            );
+    }
+}
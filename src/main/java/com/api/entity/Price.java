@@ -10,7 +10,13 @@ import java.util.Objects;
 import java.util.UUID;
 
 @Entity
-@Table(name = "prices")
+@Table(
+    name = "prices",
+    indexes = {
+        @Index(name = "idx_prices_product_instant", columnList = "product_id, instant"),
+        @Index(name = "idx_prices_instant", columnList = "instant")
+    }
+)
 @Getter
 @Setter
 @NoArgsConstructor
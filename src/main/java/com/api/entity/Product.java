@@ -3,11 +3,14 @@ package com.api.entity;
 import com.api.projection.SimpleProduct;
 import com.api.projection.SimpleProductWithStatus;
 import com.api.projection.deserializer.ProductDeserializer;
+import com.api.utility.SearchKeys;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.*;
+import org.hibernate.Hibernate;
 import org.springframework.http.HttpStatus;
 
 import javax.persistence.*;
+import java.time.Instant;
 import java.util.*;
 
 @JsonDeserialize(using = ProductDeserializer.class)
@@ -17,6 +20,10 @@ import java.util.*;
     uniqueConstraints = {
         @UniqueConstraint(name = "uk_barcode", columnNames = "barcode"),
         @UniqueConstraint(name = "uk_sequence_code", columnNames = "sequence_code")
+    },
+    indexes = {
+        @Index(name = "idx_products_updated_at", columnList = "updated_at"),
+        @Index(name = "idx_products_description_id", columnList = "description, id")
     }
 )
 @Getter
@@ -38,10 +45,39 @@ public class Product {
     @Column(name = "sequence_code", nullable = false)
     private Integer sequenceCode;
 
+    // Collated by code point, so the database sorts it exactly as the description index does in memory
+    @Column(name = "search_key", columnDefinition = "VARCHAR(255) COLLATE \"C\"")
+    @Setter(AccessLevel.NONE)
+    private String searchKey;
+
+    @Column(name = "updated_at", columnDefinition = "TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP")
+    @Setter(AccessLevel.NONE)
+    private Instant updatedAt;
+
     @OneToMany(mappedBy = "product", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @Setter(AccessLevel.NONE)
     private List<Price> prices = new ArrayList<>();
 
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "latest_price_id", foreignKey = @ForeignKey(name = "fk_product_latest_price"))
+    @Setter(AccessLevel.NONE)
+    private Price latestPrice;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String storedDescription;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String storedBarcode;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Integer storedSequenceCode;
+
     @Builder
     public Product(final UUID id, final String description, final String barcode, final Integer sequenceCode) {
         this.id = id;
@@ -77,25 +113,57 @@ public class Product {
             && Objects.equals(this.sequenceCode, that.getSequenceCode());
     }
 
+    @PrePersist
+    void touch() {
+        this.searchKey = SearchKeys.of(description);
+        this.updatedAt = Instant.now();
+    }
+
+    // Moving the latest price pointer alone is not a change sync clients or listings need to hear about
+    @PreUpdate
+    void touchIfListedFieldsChanged() {
+        if (!Objects.equals(description, storedDescription)
+            || !Objects.equals(barcode, storedBarcode)
+            || !Objects.equals(sequenceCode, storedSequenceCode))
+            touch();
+    }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberStoredFields() {
+        this.storedDescription = description;
+        this.storedBarcode = barcode;
+        this.storedSequenceCode = sequenceCode;
+    }
+
     public Product addPrice(@NonNull final Price price) {
         if (Objects.nonNull(price.getProduct()))
             throw new IllegalStateException("Product is already assigned to a Price");
 
         price.setProduct(this);
         this.prices.add(price);
+        if (Objects.isNull(latestPrice) || !price.getInstant().isBefore(latestPrice.getInstant())) latestPrice = price;
 
         return this;
     }
 
     public boolean removePrice(@NonNull final Price price) {
         price.setProduct(null);
-        return this.prices.remove(price);
+        final boolean removed = this.prices.remove(price);
+        if (price == latestPrice)
+            latestPrice = prices.stream().max(Comparator.comparing(Price::getInstant)).orElse(null);
+        return removed;
     }
 
     public List<Price> getPrices() {
         return Collections.unmodifiableList(prices);
     }
 
+    public boolean pricesAreLoaded() {
+        return Hibernate.isInitialized(prices);
+    }
+
     public SimpleProduct toSimpleProduct() {
         return SimpleProduct
             .builder()
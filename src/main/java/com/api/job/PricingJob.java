@@ -2,6 +2,7 @@ package com.api.job;
 
 import com.api.entity.Price;
 import com.api.entity.Product;
+import com.api.service.CacheWarmer;
 import com.api.service.interfaces.EmailService;
 import com.api.service.interfaces.ProductExternalService;
 import com.api.service.interfaces.ProductService;
@@ -28,6 +29,7 @@ public class PricingJob implements Job {
     private final ProductExternalService productExternalServiceImpl;
     private final ProductService productService;
     private final EmailService emailService;
+    private final CacheWarmer cacheWarmer;
 
     @Override
     public void execute() {
@@ -42,6 +44,7 @@ public class PricingJob implements Job {
         }
 
         emailService.sendSuccessMessage(info);
+        cacheWarmer.warmUp();
     }
 
     private Info updatePrices() {
@@ -54,7 +57,8 @@ public class PricingJob implements Job {
                     .map(this::clonePriceFromProduct)
                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
 
-                if (checkIfPricesAreEqual(product.getPrices().get(0), newPrice)) {
+                final Price previousPrice = product.getLatestPrice();
+                if (checkIfPricesAreEqual(previousPrice, newPrice)) {
                     log.info("No price difference found for product: "+product.getBarcode()+"...");
                     continue;
                 }
@@ -63,9 +67,8 @@ public class PricingJob implements Job {
                 product.addPrice(newPrice);
                 productService.save(product);
 
-                final BigDecimal previousPrice = product.getPrices().get(0).getValue();
                 final BigDecimal lastestPrice = newPrice.getValue();
-                productDetailsList.add(new ProductDetails(product.getDescription(), previousPrice, lastestPrice));
+                productDetailsList.add(new ProductDetails(product.getDescription(), previousPrice.getValue(), lastestPrice));
 
                 waitForOneSecond();
             }
@@ -94,7 +97,7 @@ public class PricingJob implements Job {
     }
 
     private Price clonePriceFromProduct(final Product product) {
-        final Price priceToBeCloned = product.getPrices().get(0);
+        final Price priceToBeCloned = product.getLatestPrice();
         return new Price(priceToBeCloned.getValue(), priceToBeCloned.getInstant(), null);
     }
 
@@ -0,0 +1,20 @@
+package com.api.projection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@RequiredArgsConstructor
+@Getter
+@Builder
+@ToString
+public final class BarcodeLookup {
+
+    private final String barcode;
+    private final int status;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final SimpleProduct product;
+}
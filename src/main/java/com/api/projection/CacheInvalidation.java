@@ -0,0 +1,24 @@
+package com.api.projection;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Builder
+@Jacksonized
+@ToString
+public final class CacheInvalidation {
+
+    private final String origin;
+    private final long version;
+    private final List<UUID> keys;
+    private final String barcode;
+    private final String description;
+    private final Integer sequenceCode;
+    private final boolean newProduct;
+}
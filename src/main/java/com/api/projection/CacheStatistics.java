@@ -0,0 +1,20 @@
+package com.api.projection;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Getter
+@Builder
+@ToString
+public final class CacheStatistics {
+
+    private final String name;
+    private final long entryCount;
+    private final long estimatedBytes;
+    private final Map<String, LinkFamilyStatistics> families;
+}
@@ -0,0 +1,19 @@
+package com.api.projection;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+@Builder
+public final class CachedResponse {
+
+    private final String link;
+    private final String contentType;
+    private final String cacheControl;
+    private final String eTag;
+    private final long lastModified;
+    private final byte[] body;
+    private final byte[] gzippedBody;
+}
@@ -1,29 +1,48 @@
 package com.api.projection;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.RepresentationModel;
 
 import java.util.List;
 
 @Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public final class CustomPagination<T> extends RepresentationModel<EntityModel<T>> {
 
-    private final int currentPage;
-    private final int totalOfPages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Integer currentPage;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Integer totalOfPages;
+
     private final int currentCountOfItems;
-    private final long totalOfItems;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Long totalOfItems;
+
     private final boolean hasNext;
     private final List<T> content;
 
     public CustomPagination(@NonNull final Page<?> page, @NonNull List<T> content) {
-        this.content = content;
-        this.currentPage = page.getNumber();
-        this.totalOfPages = page.getTotalPages();
-        this.currentCountOfItems = page.getNumberOfElements();
-        this.hasNext = page.hasNext();
-        this.totalOfItems = page.getTotalElements();
+        this(page.getNumber(), page.getTotalPages(), page.getNumberOfElements(), page.getTotalElements(), page.hasNext(), content);
+    }
+
+    public CustomPagination(@NonNull final Slice<?> slice, @NonNull List<T> content) {
+        this(slice.getNumber(), null, slice.getNumberOfElements(), null, slice.hasNext(), content);
+    }
+
+    public static <T> CustomPagination<T> afterCursor(
+        @NonNull final Slice<?> slice,
+        @NonNull final List<T> content,
+        final Long totalOfItems
+    ) {
+        return new CustomPagination<>(null, null, slice.getNumberOfElements(), totalOfItems, slice.hasNext(), content);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.api.projection;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+@RequiredArgsConstructor
+@Getter
+@Builder
+@ToString
+public final class LinkFamilyStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final double hitRate;
+    private final long negativeHits;
+    private final long loads;
+    private final long loadFailures;
+    private final long evictions;
+    private final long totalLoadTimeMillis;
+    private final double loadTimeP50Millis;
+    private final double loadTimeP95Millis;
+    private final double loadTimeP99Millis;
+}
@@ -0,0 +1,20 @@
+package com.api.projection;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@Getter
+public final class PriceChange {
+
+    private final UUID id;
+    private final PriceWithBarcode price;
+
+    public PriceChange(final UUID id, final String barcode, final BigDecimal value, final Instant instant) {
+        this(id, new PriceWithBarcode(barcode, value, instant));
+    }
+}
@@ -0,0 +1,20 @@
+package com.api.projection;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@RequiredArgsConstructor
+@Getter
+@Builder
+@ToString
+public final class PriceWithBarcode {
+
+    private final String barcode;
+    private final BigDecimal value;
+    private final Instant instant;
+}
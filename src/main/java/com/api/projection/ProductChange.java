@@ -0,0 +1,26 @@
+package com.api.projection;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@Getter
+public final class ProductChange {
+
+    private final UUID id;
+    private final Instant updatedAt;
+    private final SimpleProduct product;
+
+    public ProductChange(
+        final UUID id,
+        final Instant updatedAt,
+        final String description,
+        final int sequenceCode,
+        final String barcode
+    ) {
+        this(id, updatedAt, new SimpleProduct(description, sequenceCode, barcode));
+    }
+}
@@ -0,0 +1,37 @@
+package com.api.projection;
+
+import com.api.entity.Product;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.util.UUID;
+
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+@EqualsAndHashCode
+public final class ProductCursor {
+
+    public static final String PATTERN = ".+,[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}";
+
+    private final String description;
+    private final UUID id;
+
+    public static ProductCursor of(@NonNull final Product product) {
+        return new ProductCursor(product.getDescription(), product.getId());
+    }
+
+    // Descriptions may hold commas but ids never do, so the last comma is the separator
+    public static ProductCursor parse(@NonNull final String value) {
+        final int separatorIndex = value.lastIndexOf(',');
+        if (separatorIndex < 1) throw new IllegalArgumentException("Cursor must match description,id");
+        return new ProductCursor(value.substring(0, separatorIndex), UUID.fromString(value.substring(separatorIndex + 1)));
+    }
+
+    @Override
+    public String toString() {
+        return description+","+id;
+    }
+}
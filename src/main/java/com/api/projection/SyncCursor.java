@@ -0,0 +1,50 @@
+package com.api.projection;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// The highest uuid starts a sync strictly after the watermark, which was inclusive as the previous upper bound
+@RequiredArgsConstructor
+@Getter
+public final class SyncCursor {
+
+    private static final UUID HIGHEST_ID = new UUID(-1L, -1L);
+    private static final String SEPARATOR = "|";
+
+    private final Instant upTo;
+    private final Instant productInstant;
+    private final UUID productId;
+    private final Instant priceInstant;
+    private final UUID priceId;
+
+    public static SyncCursor startingAt(@NonNull final Instant watermark, @NonNull final Instant upTo) {
+        return new SyncCursor(upTo, watermark, HIGHEST_ID, watermark, HIGHEST_ID);
+    }
+
+    public static SyncCursor valueOf(@NonNull final String encodedCursor) {
+        final String[] fields =
+            new String(Base64.getUrlDecoder().decode(encodedCursor), StandardCharsets.UTF_8).split("\\|", -1);
+        if (fields.length != 5) throw new IllegalArgumentException("Malformed sync cursor");
+        return new SyncCursor(
+            Instant.parse(fields[0]),
+            Instant.parse(fields[1]),
+            UUID.fromString(fields[2]),
+            Instant.parse(fields[3]),
+            UUID.fromString(fields[4])
+        );
+    }
+
+    @Override
+    public String toString() {
+        final String fields = String.join(
+            SEPARATOR, upTo.toString(), productInstant.toString(), productId.toString(), priceInstant.toString(), priceId.toString()
+        );
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fields.getBytes(StandardCharsets.UTF_8));
+    }
+}
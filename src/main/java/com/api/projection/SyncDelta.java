@@ -0,0 +1,21 @@
+package com.api.projection;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.List;
+
+@RequiredArgsConstructor
+@Getter
+@Builder
+@ToString
+public final class SyncDelta {
+
+    private final List<SimpleProduct> products;
+    private final List<PriceWithBarcode> prices;
+    private final Instant watermark;
+    private final String cursor;
+}
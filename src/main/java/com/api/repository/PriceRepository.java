@@ -1,18 +1,51 @@
 package com.api.repository;
 
 import com.api.entity.Price;
+import com.api.projection.PriceChange;
+import com.api.projection.PriceWithInstant;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface PriceRepository extends JpaRepository<Price, UUID> {
 
-    List<Price> findByProductBarcode(String barcode, Sort sort);
+    @Query("SELECT new com.api.projection.PriceWithInstant(pri.value, pri.instant) FROM Price pri WHERE pri.id = :id")
+    Optional<PriceWithInstant> findPriceWithInstantById(@Param("id") UUID id);
 
-    List<Price> findByProductBarcode(String barcode, Pageable pageable);
+    @Query(
+        "SELECT new com.api.projection.PriceWithInstant(pri.value, pri.instant) "+
+        "FROM Price pri WHERE pri.product.barcode = :barcode"
+    )
+    List<PriceWithInstant> findAllPricesWithInstantByProductBarcode(@Param("barcode") String barcode, Sort sort);
+
+    @Query(
+        "SELECT new com.api.projection.PriceWithInstant(pri.value, pri.instant) "+
+        "FROM Price pri WHERE pri.product.barcode = :barcode"
+    )
+    List<PriceWithInstant> findAllPricesWithInstantByProductBarcode(@Param("barcode") String barcode, Pageable pageable);
+
+    @Query("SELECT MAX(pri.instant) FROM Price pri WHERE pri.product.barcode = :barcode")
+    Optional<Instant> findLatestInstantByProductBarcode(@Param("barcode") String barcode);
+
+    @Query(
+        "SELECT new com.api.projection.PriceChange(pri.id, pro.barcode, pri.value, pri.instant) "+
+        "FROM Price pri JOIN pri.product pro "+
+        "WHERE (pri.instant > :since OR pri.instant = :since AND pri.id > :afterId) AND pri.instant <= :upTo "+
+        "ORDER BY pri.instant ASC, pri.id ASC"
+    )
+    List<PriceChange> findAllAddedAfter(
+        @Param("since") Instant since,
+        @Param("afterId") UUID afterId,
+        @Param("upTo") Instant upTo,
+        Pageable pageable
+    );
 }
@@ -1,12 +1,17 @@
 package com.api.repository;
 
 import com.api.entity.Product;
+import com.api.projection.ProductChange;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,16 +21,70 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
 
     Optional<Product> findByBarcode(String barcode);
 
+    List<Product> findAllByBarcodeIn(Collection<String> barcodes);
+
     @Query(
-        "SELECT pro FROM Product pro JOIN FETCH pro.prices pri WHERE pri.instant IN "+
-        "(SELECT MAX(pri2.instant) FROM Price pri2 GROUP BY pri2.product) "+
+        "SELECT pro FROM Product pro JOIN FETCH pro.prices pri WHERE pri.id = pro.latestPrice.id "+
         "ORDER BY pro.description ASC"
     )
     List<Product> findAllWithLastPrice();
 
-    Page<Product> findAllByDescriptionIgnoreCaseContaining(String description, Pageable pageable);
+    @Query("SELECT pro FROM Product pro")
+    Slice<Product> findSliceOfAll(Pageable pageable);
+
+    Page<Product> findAllBySearchKeyContaining(String searchKey, Pageable pageable);
+
+    Slice<Product> findSliceBySearchKeyContaining(String searchKey, Pageable pageable);
+
+    Page<Product> findAllBySearchKeyStartingWith(String searchKey, Pageable pageable);
+
+    Slice<Product> findSliceBySearchKeyStartingWith(String searchKey, Pageable pageable);
+
+    Page<Product> findAllBySearchKeyEndingWith(String searchKey, Pageable pageable);
+
+    Slice<Product> findSliceBySearchKeyEndingWith(String searchKey, Pageable pageable);
+
+    // Filters on the column idx_products_search_key_trgm covers, which is what lets Postgres use it
+    @Query(
+        value = "SELECT * FROM products WHERE search_key LIKE :pattern",
+        countQuery = "SELECT count(*) FROM products WHERE search_key LIKE :pattern",
+        nativeQuery = true
+    )
+    Page<Product> findAllBySearchKeyMatching(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query(value = "SELECT * FROM products WHERE search_key LIKE :pattern", nativeQuery = true)
+    Slice<Product> findSliceBySearchKeyMatching(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query(value = "SELECT * FROM products ORDER BY description ASC, id ASC LIMIT :limit", nativeQuery = true)
+    List<Product> findFirstInDescriptionOrder(@Param("limit") int limit);
 
-    Page<Product> findAllByDescriptionIgnoreCaseStartingWith(String description, Pageable pageable);
+    @Query(
+        value = "SELECT * FROM products WHERE (description, id) > (:description, CAST(:id AS uuid)) "+
+            "ORDER BY description ASC, id ASC LIMIT :limit",
+        nativeQuery = true
+    )
+    List<Product> findAllAfterInDescriptionOrder(
+        @Param("description") String description,
+        @Param("id") String id,
+        @Param("limit") int limit
+    );
 
-    Page<Product> findAllByDescriptionIgnoreCaseEndingWith(String description, Pageable pageable);
+    @Query("SELECT MAX(pro.updatedAt) FROM Product pro")
+    Optional<Instant> findLatestUpdate();
+
+    @Query("SELECT pro.updatedAt FROM Product pro WHERE pro.barcode = :barcode")
+    Optional<Instant> findUpdatedAtByBarcode(@Param("barcode") String barcode);
+
+    @Query(
+        "SELECT new com.api.projection.ProductChange(pro.id, pro.updatedAt, pro.description, pro.sequenceCode, pro.barcode) "+
+        "FROM Product pro "+
+        "WHERE (pro.updatedAt > :since OR pro.updatedAt = :since AND pro.id > :afterId) AND pro.updatedAt <= :upTo "+
+        "ORDER BY pro.updatedAt ASC, pro.id ASC"
+    )
+    List<ProductChange> findAllUpdatedAfter(
+        @Param("since") Instant since,
+        @Param("afterId") UUID afterId,
+        @Param("upTo") Instant upTo,
+        Pageable pageable
+    );
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.api.service;
+
+import lombok.NonNull;
+
+import java.util.*;
+import java.util.function.ObjIntConsumer;
+
+final class BkTree {
+
+    private Node root;
+    private int size;
+
+    void add(@NonNull final String term) {
+        if (Objects.isNull(root)) {
+            root = new Node(term);
+            size++;
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            final int distance = distanceOf(node.term, term, Integer.MAX_VALUE);
+            if (distance == 0) return;
+
+            final Node child = node.children.get(distance);
+            if (Objects.isNull(child)) {
+                node.children.put(distance, new Node(term));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    void forEachWithin(@NonNull final String term, final int maxDistance, @NonNull final ObjIntConsumer<String> consumer) {
+        if (Objects.isNull(root)) return;
+
+        final Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Node node = pending.pop();
+            final int distance = distanceOf(node.term, term, Integer.MAX_VALUE);
+            if (distance <= maxDistance) consumer.accept(node.term, distance);
+
+            for (int childDistance = Math.max(1, distance - maxDistance); childDistance <= distance + maxDistance; childDistance++) {
+                final Node child = node.children.get(childDistance);
+                if (Objects.nonNull(child)) pending.push(child);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    static int distanceOf(final String left, final String right, final int limit) {
+        if (Math.abs(left.length() - right.length()) > limit) return limit + 1;
+
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) previous[j] = j;
+
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= right.length(); j++) {
+                final int substitution = previous[j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > limit) return limit + 1;
+
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[right.length()];
+    }
+
+    private static final class Node {
+
+        private final String term;
+        private final Map<Integer, Node> children = new HashMap<>(4);
+
+        private Node(final String term) {
+            this.term = term;
+        }
+    }
+}
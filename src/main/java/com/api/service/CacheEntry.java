@@ -0,0 +1,15 @@
+package com.api.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public final class CacheEntry<TARGET> {
+
+    private final String link;
+    private final List<TARGET> targets;
+    private final long writtenAt;
+}
@@ -0,0 +1,233 @@
+package com.api.service;
+
+import com.api.entity.Product;
+import com.api.projection.CacheInvalidation;
+import com.api.projection.PriceWithInstant;
+import com.api.utility.CacheLinks;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+@Component
+@Log4j2
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class CacheInvalidationBus {
+
+    private static final String CHANNEL = "cache_invalidation";
+    private static final String VERSION_SEQUENCE = "cache_version_seq";
+    private static final int POLL_TIMEOUT_MILLIS = 5_000;
+    private static final long RECONNECT_DELAY_SECONDS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ObjectMapper objectMapper;
+    private final CacheManager<Product, UUID> productCacheManager;
+    private final CacheManager<PriceWithInstant, UUID> priceCacheManager;
+    private final ProductCacheSnapshot productCacheSnapshot;
+    private final DescriptionIndex descriptionIndex;
+    private final CountCache countCache;
+
+    private final String origin = UUID.randomUUID().toString();
+    private long appliedVersion = -1;
+    private long sequenceOid;
+    private volatile boolean listening;
+    private Thread listener;
+
+    @PostConstruct
+    public void start() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS "+VERSION_SEQUENCE);
+        sequenceOid = Objects.requireNonNull(
+            jdbcTemplate.queryForObject("SELECT '"+VERSION_SEQUENCE+"'::regclass::oid", Long.class)
+        );
+        restoreSnapshot();
+        listening = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        listening = false;
+        if (Objects.nonNull(listener)) listener.interrupt();
+        synchronized (this) {
+            if (appliedVersion >= 0)
+                productCacheSnapshot.write(databaseMarkerOf(appliedVersion), productCacheManager.getEntries());
+        }
+    }
+
+    private void restoreSnapshot() {
+        final long currentVersion = currentVersion();
+        productCacheSnapshot.read(databaseMarkerOf(currentVersion)).ifPresent(cacheEntries -> {
+            synchronized (this) {
+                appliedVersion = currentVersion;
+                productCacheManager.restore(cacheEntries, refOf(currentVersion));
+            }
+            log.info("Product cache restored from snapshot with "+cacheEntries.size()+" links");
+        });
+    }
+
+    // The sequence oid tells apart databases that happen to be at the same version, like freshly created ones
+    private String databaseMarkerOf(final long version) {
+        return sequenceOid+":"+version;
+    }
+
+    // A fresh sequence reports last_value 1 before any nextval, which must not be mistaken for version 1
+    private long currentVersion() {
+        final Long currentVersion = jdbcTemplate.queryForObject(
+            "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM "+VERSION_SEQUENCE, Long.class
+        );
+        return Objects.requireNonNull(currentVersion);
+    }
+
+    // Must run inside the writing transaction, so that Postgres delivers the notification only on commit
+    public void publish(@NonNull final Product product, final boolean isNewProduct) {
+        final Long version = jdbcTemplate.queryForObject("SELECT nextval('"+VERSION_SEQUENCE+"')", Long.class);
+        final CacheInvalidation cacheInvalidation = CacheInvalidation.builder()
+            .origin(origin)
+            .version(Objects.requireNonNull(version))
+            .keys(Objects.isNull(product.getId()) ? Collections.emptyList() : List.of(product.getId()))
+            .barcode(product.getBarcode())
+            .description(product.getDescription())
+            .sequenceCode(product.getSequenceCode())
+            .newProduct(isNewProduct)
+            .build();
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, toJson(cacheInvalidation));
+        runAfterCommit(() -> apply(cacheInvalidation));
+    }
+
+    private synchronized void apply(final CacheInvalidation cacheInvalidation) {
+        // Notifications may arrive out of order, so an older version still evicts but never moves the ref back
+        final boolean isNewerVersion = cacheInvalidation.getVersion() > appliedVersion;
+        if (isNewerVersion) appliedVersion = cacheInvalidation.getVersion();
+        final Predicate<String> affectedLinks = CacheLinks.affectedBy(
+            cacheInvalidation.getBarcode(), cacheInvalidation.getDescription(), cacheInvalidation.isNewProduct()
+        );
+        productCacheManager.invalidate(
+            cacheInvalidation.getKeys(),
+            affectedLinks,
+            isNewerVersion ? refOf(cacheInvalidation.getVersion()) : productCacheManager.getRef()
+        );
+        countCache.invalidate(affectedLinks);
+        priceCacheManager.invalidate(Collections.emptyList(), CacheLinks.priceHistoryOf(cacheInvalidation.getBarcode()));
+        if (!cacheInvalidation.getKeys().isEmpty() && Objects.nonNull(cacheInvalidation.getSequenceCode()))
+            descriptionIndex.put(Product.builder()
+                .id(cacheInvalidation.getKeys().get(0))
+                .barcode(cacheInvalidation.getBarcode())
+                .description(cacheInvalidation.getDescription())
+                .sequenceCode(cacheInvalidation.getSequenceCode())
+                .build()
+            );
+    }
+
+    private void resynchronize() {
+        synchronized (this) {
+            final long currentVersion = currentVersion();
+            if (currentVersion == appliedVersion) return;
+
+            appliedVersion = currentVersion;
+            productCacheManager.evictAll(refOf(currentVersion));
+            priceCacheManager.evictAll();
+            countCache.clear();
+        }
+        // Outside the lock, so notifications keep being applied during the catalog scan, the index replays their puts
+        descriptionIndex.rebuild();
+    }
+
+    private UUID refOf(final long version) {
+        return UUID.nameUUIDFromBytes((CHANNEL+":"+version).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void listen() {
+        while (listening) {
+            try (final Connection connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+            )) {
+                final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (final Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN "+CHANNEL);
+                }
+                resynchronize();
+
+                while (listening) {
+                    final PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (Objects.isNull(notifications)) continue;
+                    for (final PGNotification notification : notifications) receive(notification.getParameter());
+                }
+            }
+            catch (SQLException | RuntimeException ex) {
+                if (!listening) return;
+                log.warn("Cache invalidation listener lost its connection, reconnecting: "+ex.getMessage());
+                waitBeforeReconnecting();
+            }
+        }
+    }
+
+    private void receive(final String payload) {
+        try {
+            final CacheInvalidation cacheInvalidation = objectMapper.readValue(payload, CacheInvalidation.class);
+            if (origin.equals(cacheInvalidation.getOrigin())) return;
+            apply(cacheInvalidation);
+        }
+        catch (JsonProcessingException ex) {
+            log.warn("Ignoring malformed cache invalidation: "+payload);
+        }
+    }
+
+    private String toJson(final CacheInvalidation cacheInvalidation) {
+        try {
+            return objectMapper.writeValueAsString(cacheInvalidation);
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void waitBeforeReconnecting() {
+        try {
+            TimeUnit.SECONDS.sleep(RECONNECT_DELAY_SECONDS);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runAfterCommit(final Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+}
@@ -1,66 +1,376 @@
 package com.api.service;
 
-import lombok.AccessLevel;
-import lombok.Getter;
-import lombok.Setter;
+import com.api.projection.CacheStatistics;
 import org.springframework.lang.NonNull;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class CacheManager<TARGET, KEY> {
 
-    private final Map<KEY, TARGET> sourceBucket = new HashMap<>();
     private final Function<TARGET, KEY> keyExtractorFunction;
-    private final ConcurrentMap<String, List<KEY>> cache = new ConcurrentHashMap<>();
-
-    @Getter
-    @Setter(AccessLevel.PRIVATE)
-    private UUID ref = UUID.randomUUID();
+    private final CacheSettings<TARGET> cacheSettings;
+    private final AtomicReference<Store<TARGET, KEY>> storeReference;
+    private final CacheStats cacheStats;
 
     public CacheManager(@NonNull final Function<TARGET, KEY> keyExtractorFunction) {
+        this(keyExtractorFunction, CacheSettings.unbounded());
+    }
+
+    public CacheManager(@NonNull final Function<TARGET, KEY> keyExtractorFunction, @NonNull final CacheSettings<TARGET> cacheSettings) {
+        if (cacheSettings.isStaleWhileRevalidate() && Objects.isNull(cacheSettings.getRefreshExecutor()))
+            throw new IllegalArgumentException("Stale-while-revalidate needs a refresh executor");
         this.keyExtractorFunction = keyExtractorFunction;
+        this.cacheSettings = cacheSettings;
+        this.storeReference = new AtomicReference<>(newStore());
+        this.cacheStats = new CacheStats(cacheSettings.getLinkFamilyFunction());
     }
 
     public Optional<List<TARGET>> sync(@NonNull final String link, @NonNull final Supplier<List<TARGET>> synchronizerSupplier) {
-        if (cache.containsKey(link)) return get(link);
-        final List<TARGET> dataToSync = synchronizerSupplier.get();
+        final Store<TARGET, KEY> store = storeReference.get();
+        final Entry<TARGET, KEY> cachedEntry = store.entries.get(link);
+        if (Objects.isNull(cachedEntry)) {
+            cacheStats.recordMiss(link);
+            return load(store, link, synchronizerSupplier);
+        }
+
+        final long now = cacheSettings.getClock().millis();
+        final boolean expired = isExpired(cachedEntry, now);
+        if (expired || (needsRefresh(cachedEntry, now) && !cacheSettings.isStaleWhileRevalidate())) {
+            if (remove(store, link, cachedEntry) && expired) cacheStats.recordEviction(link);
+            cacheStats.recordMiss(link);
+            return load(store, link, synchronizerSupplier);
+        }
+
+        cacheStats.recordHit(link);
+        store.policy.recordAccess(link);
+        if (needsRefresh(cachedEntry, now)) refreshInBackground(store, link, cachedEntry, synchronizerSupplier);
+        return Optional.of(cachedEntry.targets);
+    }
+
+    private boolean isExpired(final Entry<TARGET, KEY> entry, final long now) {
+        final Duration expireAfterWrite = cacheSettings.getExpireAfterWrite();
+        return Objects.nonNull(expireAfterWrite) && now - entry.writtenAt >= expireAfterWrite.toMillis();
+    }
+
+    private boolean needsRefresh(final Entry<TARGET, KEY> entry, final long now) {
+        final Duration refreshAfterWrite = cacheSettings.getRefreshAfterWrite();
+        if (Objects.nonNull(refreshAfterWrite) && now - entry.writtenAt >= refreshAfterWrite.toMillis()) return true;
+        return Objects.nonNull(cacheSettings.getDailyRefreshAt()) && entry.writtenAt < latestDailyRefresh(now);
+    }
+
+    private long latestDailyRefresh(final long now) {
+        final ZonedDateTime currentTime = Instant.ofEpochMilli(now).atZone(cacheSettings.getZone());
+        final ZonedDateTime refreshToday = currentTime.with(cacheSettings.getDailyRefreshAt());
+        return (refreshToday.isAfter(currentTime) ? refreshToday.minusDays(1) : refreshToday).toInstant().toEpochMilli();
+    }
+
+    private void refreshInBackground(
+        final Store<TARGET, KEY> store,
+        final String link,
+        final Entry<TARGET, KEY> staleEntry,
+        final Supplier<List<TARGET>> synchronizerSupplier
+    ) {
+        final CompletableFuture<Optional<List<TARGET>>> ownLoad = new CompletableFuture<>();
+        if (Objects.nonNull(store.loads.putIfAbsent(link, ownLoad))) return;
+
+        try {
+            cacheSettings.getRefreshExecutor().execute(() -> {
+                try {
+                    final long invalidationStamp = store.invalidations.get();
+                    final List<TARGET> dataToSync = timedLoad(link, synchronizerSupplier);
+                    final long writtenAt = cacheSettings.getClock().millis();
+                    remove(store, link, staleEntry);
+                    ownLoad.complete(
+                        Objects.isNull(dataToSync) || dataToSync.isEmpty()
+                            ? Optional.empty()
+                            : Optional.of(put(store, link, dataToSync, invalidationStamp, writtenAt).targets)
+                    );
+                }
+                catch (RuntimeException | Error ex) {
+                    ownLoad.completeExceptionally(ex);
+                }
+                finally {
+                    store.loads.remove(link, ownLoad);
+                }
+            });
+        }
+        catch (RejectedExecutionException ex) {
+            store.loads.remove(link, ownLoad);
+            ownLoad.completeExceptionally(ex);
+        }
+    }
+
+    private Optional<List<TARGET>> load(
+        final Store<TARGET, KEY> store,
+        final String link,
+        final Supplier<List<TARGET>> synchronizerSupplier
+    ) {
+        final CompletableFuture<Optional<List<TARGET>>> ownLoad = new CompletableFuture<>();
+        final CompletableFuture<Optional<List<TARGET>>> runningLoad = store.loads.putIfAbsent(link, ownLoad);
+        if (Objects.nonNull(runningLoad)) return await(runningLoad);
+
+        try {
+            final Entry<TARGET, KEY> entryPublishedMeanwhile = store.entries.get(link);
+            final Optional<List<TARGET>> result = Objects.nonNull(entryPublishedMeanwhile)
+                ? Optional.of(entryPublishedMeanwhile.targets)
+                : loadAndPut(store, link, synchronizerSupplier);
+            ownLoad.complete(result);
+            return result;
+        }
+        catch (RuntimeException | Error ex) {
+            ownLoad.completeExceptionally(ex);
+            throw ex;
+        }
+        finally {
+            store.loads.remove(link, ownLoad);
+        }
+    }
+
+    private Optional<List<TARGET>> loadAndPut(
+        final Store<TARGET, KEY> store,
+        final String link,
+        final Supplier<List<TARGET>> synchronizerSupplier
+    ) {
+        final long invalidationStamp = store.invalidations.get();
+        final List<TARGET> dataToSync = timedLoad(link, synchronizerSupplier);
         if (Objects.isNull(dataToSync) || dataToSync.isEmpty()) return Optional.empty();
-        put(link, dataToSync);
-        return get(link);
+        return Optional.of(put(store, link, dataToSync, invalidationStamp, cacheSettings.getClock().millis()).targets);
     }
 
-    private void put(@NonNull final String key, @NonNull List<TARGET> listOfData) {
-        for (final TARGET target : listOfData)
-            sourceBucket.put(keyExtractorFunction.apply(target), target);
-        final List<KEY> listOfKeys = listOfData.stream().map(keyExtractorFunction).collect(Collectors.toList());
-        cache.put(key, listOfKeys);
+    private List<TARGET> timedLoad(final String link, final Supplier<List<TARGET>> synchronizerSupplier) {
+        final long startTime = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            final List<TARGET> dataToSync = synchronizerSupplier.get();
+            succeeded = true;
+            return dataToSync;
+        }
+        finally {
+            cacheStats.recordLoad(link, System.nanoTime() - startTime, succeeded);
+        }
     }
 
-    private Optional<List<TARGET>> get(@NonNull final String link) {
+    private Optional<List<TARGET>> await(final CompletableFuture<Optional<List<TARGET>>> runningLoad) {
         try {
-            final List<TARGET> list = cache.get(link)
-                .stream()
-                .map(key -> Optional.of(sourceBucket.get(key)).orElseThrow())
-                .collect(Collectors.toList());
-            return Optional.of(list);
+            return runningLoad.join();
         }
-        catch (NoSuchElementException ex) {
-            return Optional.empty();
+        catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+            if (ex.getCause() instanceof Error) throw (Error) ex.getCause();
+            throw ex;
         }
     }
 
+    private Entry<TARGET, KEY> put(
+        final Store<TARGET, KEY> store,
+        final String link,
+        final List<TARGET> listOfData,
+        final long invalidationStamp,
+        final long writtenAt
+    ) {
+        final Entry<TARGET, KEY> newEntry = new Entry<>(listOfData, extractKeys(listOfData), weigh(listOfData), writtenAt);
+        // Data loaded before an invalidation may already be stale, so it's served but not cached
+        if (!store.policy.admits(newEntry.weight) || store.invalidations.get() != invalidationStamp) return newEntry;
+
+        // The weight is recorded while the link is published, so a concurrent remove can't run in between and leave it behind
+        final List<String> victims = new ArrayList<>();
+        final Entry<TARGET, KEY> publishedEntry = store.entries.computeIfAbsent(link, l -> {
+            victims.addAll(store.policy.recordWrite(link, newEntry.weight));
+            return newEntry;
+        });
+        if (publishedEntry != newEntry) return publishedEntry;
+
+        for (final KEY key : newEntry.keys)
+            store.linksByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(link);
+        for (final String victim : victims)
+            if (remove(store, victim, null)) cacheStats.recordEviction(victim);
+        // An invalidation running concurrently may have missed this link in the reverse index
+        if (store.invalidations.get() != invalidationStamp) remove(store, link, newEntry);
+        return newEntry;
+    }
+
+    private List<KEY> extractKeys(final List<TARGET> listOfData) {
+        return listOfData.stream()
+            .map(keyExtractorFunction)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    private long weigh(final List<TARGET> listOfData) {
+        long weight = 0;
+        for (final TARGET target : listOfData)
+            weight += cacheSettings.getWeigher().applyAsLong(target);
+        return Math.max(1, weight);
+    }
+
+    private boolean remove(final Store<TARGET, KEY> store, final String link, final Entry<TARGET, KEY> expectedEntry) {
+        final AtomicReference<Entry<TARGET, KEY>> removedEntryReference = new AtomicReference<>();
+        store.entries.computeIfPresent(link, (l, currentEntry) -> {
+            if (Objects.nonNull(expectedEntry) && currentEntry != expectedEntry) return currentEntry;
+            store.policy.remove(link);
+            removedEntryReference.set(currentEntry);
+            return null;
+        });
+        final Entry<TARGET, KEY> removedEntry = removedEntryReference.get();
+        if (Objects.isNull(removedEntry)) return false;
+
+        for (final KEY key : removedEntry.keys)
+            store.linksByKey.computeIfPresent(key, (k, links) -> {
+                links.remove(link);
+                return links.isEmpty() ? null : links;
+            });
+        return true;
+    }
+
+    public void invalidate(@NonNull final Collection<KEY> keys, @NonNull final Predicate<String> linkPredicate) {
+        invalidate(keys, linkPredicate, UUID.randomUUID());
+    }
+
+    public void invalidate(
+        @NonNull final Collection<KEY> keys,
+        @NonNull final Predicate<String> linkPredicate,
+        @NonNull final UUID newRef
+    ) {
+        final Store<TARGET, KEY> store = storeReference.get();
+        store.invalidations.incrementAndGet();
+
+        for (final KEY key : keys) {
+            final Set<String> links = store.linksByKey.get(key);
+            if (Objects.nonNull(links)) List.copyOf(links).forEach(link -> evict(store, link));
+        }
+        store.entries.keySet().stream()
+            .filter(linkPredicate)
+            .collect(Collectors.toList())
+            .forEach(link -> evict(store, link));
+        synchronized (store.missingLinks) {
+            store.missingLinks.keySet().removeIf(linkPredicate);
+        }
+
+        store.ref = newRef;
+    }
+
+    public void markMissing(@NonNull final String link) {
+        final Duration negativeTimeToLive = cacheSettings.getNegativeTimeToLive();
+        if (Objects.isNull(negativeTimeToLive)) return;
+
+        final Store<TARGET, KEY> store = storeReference.get();
+        final long expiresAt = cacheSettings.getClock().millis() + negativeTimeToLive.toMillis();
+        synchronized (store.missingLinks) {
+            store.missingLinks.remove(link);
+            store.missingLinks.put(link, expiresAt);
+        }
+    }
+
+    public boolean isMarkedMissing(@NonNull final String link) {
+        final Store<TARGET, KEY> store = storeReference.get();
+        final Long expiresAt;
+        synchronized (store.missingLinks) {
+            expiresAt = store.missingLinks.get(link);
+            if (Objects.isNull(expiresAt)) return false;
+            if (cacheSettings.getClock().millis() >= expiresAt) {
+                store.missingLinks.remove(link);
+                return false;
+            }
+        }
+        cacheStats.recordNegativeHit(link);
+        return true;
+    }
+
+    private void evict(final Store<TARGET, KEY> store, final String link) {
+        if (remove(store, link, null)) cacheStats.recordEviction(link);
+    }
+
     public void evictAll() {
-        sourceBucket.clear();
-        cache.clear();
-        setRef(UUID.randomUUID());
+        storeReference.set(newStore());
+    }
+
+    public void evictAll(@NonNull final UUID newRef) {
+        final Store<TARGET, KEY> store = newStore();
+        store.ref = newRef;
+        storeReference.set(store);
+    }
+
+    public List<CacheEntry<TARGET>> getEntries() {
+        return storeReference.get().entries.entrySet().stream()
+            .map(entry -> new CacheEntry<>(entry.getKey(), entry.getValue().targets, entry.getValue().writtenAt))
+            .collect(Collectors.toList());
+    }
+
+    public void restore(@NonNull final Collection<CacheEntry<TARGET>> cacheEntries, @NonNull final UUID newRef) {
+        final Store<TARGET, KEY> store = newStore();
+        store.ref = newRef;
+        for (final CacheEntry<TARGET> cacheEntry : cacheEntries)
+            if (!cacheEntry.getTargets().isEmpty())
+                put(store, cacheEntry.getLink(), cacheEntry.getTargets(), 0, cacheEntry.getWrittenAt());
+        storeReference.set(store);
+    }
+
+    public long getWeightedSize() {
+        return storeReference.get().policy.weightedSize();
+    }
+
+    public CacheStatistics getStatistics() {
+        final Store<TARGET, KEY> store = storeReference.get();
+        return cacheStats.snapshot(cacheSettings.getName(), store.entries.size(), store.policy.weightedSize());
+    }
+
+    private Store<TARGET, KEY> newStore() {
+        return new Store<>(
+            new SegmentedLruPolicy(cacheSettings.getMaximumWeight(), cacheSettings.getProtectedRatio()),
+            cacheSettings.getMaximumNegativeLinks()
+        );
     }
 
     public boolean containsKey(final String key) {
-        return cache.containsKey(key);
+        return storeReference.get().entries.containsKey(key);
+    }
+
+    public UUID getRef() {
+        return storeReference.get().ref;
+    }
+
+    private static final class Store<TARGET, KEY> {
+        private volatile UUID ref = UUID.randomUUID();
+        private final ConcurrentMap<String, Entry<TARGET, KEY>> entries = new ConcurrentHashMap<>();
+        private final ConcurrentMap<KEY, Set<String>> linksByKey = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, CompletableFuture<Optional<List<TARGET>>>> loads = new ConcurrentHashMap<>();
+        private final AtomicLong invalidations = new AtomicLong();
+        private final SegmentedLruPolicy policy;
+        private final Map<String, Long> missingLinks;
+
+        private Store(final SegmentedLruPolicy policy, final int maximumNegativeLinks) {
+            this.policy = policy;
+            this.missingLinks = new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+                    return size() > maximumNegativeLinks;
+                }
+            };
+        }
+    }
+
+    private static final class Entry<TARGET, KEY> {
+        private final List<TARGET> targets;
+        private final List<KEY> keys;
+        private final long weight;
+        private final long writtenAt;
+
+        private Entry(final List<TARGET> targets, final List<KEY> keys, final long weight, final long writtenAt) {
+            this.targets = Collections.unmodifiableList(new ArrayList<>(targets));
+            this.keys = keys;
+            this.weight = weight;
+            this.writtenAt = writtenAt;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.api.service;
+
+import com.api.utility.CacheLinks;
+import com.api.utility.Constants;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+@Getter
+@Builder
+public final class CacheSettings<TARGET> {
+
+    @Builder.Default
+    private final String name = "cache";
+
+    @Builder.Default
+    private final Function<String, String> linkFamilyFunction = CacheLinks::familyOf;
+
+    @Builder.Default
+    private final long maximumWeight = Long.MAX_VALUE;
+
+    @Builder.Default
+    private final ToLongFunction<TARGET> weigher = target -> 1;
+
+    @Builder.Default
+    private final double protectedRatio = 0.8;
+
+    private final Duration expireAfterWrite;
+
+    private final Duration refreshAfterWrite;
+
+    private final LocalTime dailyRefreshAt;
+
+    @Builder.Default
+    private final ZoneId zone = ZoneId.of(Constants.TIMEZONE);
+
+    private final boolean staleWhileRevalidate;
+
+    private final Duration negativeTimeToLive;
+
+    @Builder.Default
+    private final int maximumNegativeLinks = 10_000;
+
+    @Builder.Default
+    private final Clock clock = Clock.systemUTC();
+
+    private final Executor refreshExecutor;
+
+    public static <TARGET> CacheSettings<TARGET> unbounded() {
+        return CacheSettings.<TARGET>builder().build();
+    }
+}
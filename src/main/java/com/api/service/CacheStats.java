@@ -0,0 +1,117 @@
+package com.api.service;
+
+import com.api.projection.CacheStatistics;
+import com.api.projection.LinkFamilyStatistics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+final class CacheStats {
+
+    private final Function<String, String> linkFamilyFunction;
+    private final ConcurrentMap<String, FamilyCounters> countersByFamily = new ConcurrentHashMap<>();
+
+    CacheStats(final Function<String, String> linkFamilyFunction) {
+        this.linkFamilyFunction = linkFamilyFunction;
+    }
+
+    void recordHit(final String link) {
+        countersOf(link).hits.increment();
+    }
+
+    void recordMiss(final String link) {
+        countersOf(link).misses.increment();
+    }
+
+    void recordNegativeHit(final String link) {
+        countersOf(link).negativeHits.increment();
+    }
+
+    void recordLoad(final String link, final long elapsedNanos, final boolean succeeded) {
+        final FamilyCounters counters = countersOf(link);
+        if (succeeded) counters.loads.increment();
+        else counters.loadFailures.increment();
+        counters.totalLoadNanos.add(elapsedNanos);
+        counters.loadTimes.record(elapsedNanos);
+    }
+
+    void recordEviction(final String link) {
+        countersOf(link).evictions.increment();
+    }
+
+    CacheStatistics snapshot(final String name, final long entryCount, final long estimatedBytes) {
+        final Map<String, LinkFamilyStatistics> families = new TreeMap<>();
+        countersByFamily.forEach((family, counters) -> families.put(family, counters.snapshot()));
+        return CacheStatistics.builder()
+            .name(name)
+            .entryCount(entryCount)
+            .estimatedBytes(estimatedBytes)
+            .families(families)
+            .build();
+    }
+
+    private FamilyCounters countersOf(final String link) {
+        return countersByFamily.computeIfAbsent(linkFamilyFunction.apply(link), family -> new FamilyCounters());
+    }
+
+    private static final class FamilyCounters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder negativeHits = new LongAdder();
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder loadFailures = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder totalLoadNanos = new LongAdder();
+        private final LoadTimeHistogram loadTimes = new LoadTimeHistogram();
+
+        private LinkFamilyStatistics snapshot() {
+            final long hitCount = hits.sum();
+            final long missCount = misses.sum();
+            final long requestCount = hitCount + missCount;
+            return LinkFamilyStatistics.builder()
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(requestCount == 0 ? 0.0 : (double) hitCount / requestCount)
+                .negativeHits(negativeHits.sum())
+                .loads(loads.sum())
+                .loadFailures(loadFailures.sum())
+                .evictions(evictions.sum())
+                .totalLoadTimeMillis(Duration.ofNanos(totalLoadNanos.sum()).toMillis())
+                .loadTimeP50Millis(loadTimes.percentileMillis(0.50))
+                .loadTimeP95Millis(loadTimes.percentileMillis(0.95))
+                .loadTimeP99Millis(loadTimes.percentileMillis(0.99))
+                .build();
+        }
+    }
+
+    private static final class LoadTimeHistogram {
+        private static final int NUMBER_OF_BUCKETS = 40;
+        private final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+        private void record(final long elapsedNanos) {
+            final long elapsedMicros = Math.max(1, elapsedNanos / 1_000);
+            final int bucket = Math.min(NUMBER_OF_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(elapsedMicros));
+            buckets.incrementAndGet(bucket);
+        }
+
+        private double percentileMillis(final double percentile) {
+            long total = 0;
+            for (int i = 0; i < NUMBER_OF_BUCKETS; i++) total += buckets.get(i);
+            if (total == 0) return 0.0;
+
+            final long rank = (long) Math.ceil(percentile * total);
+            long cumulative = 0;
+            for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+                cumulative += buckets.get(i);
+                if (cumulative >= rank) return (1L << (i + 1)) / 1_000.0;
+            }
+            return (1L << NUMBER_OF_BUCKETS) / 1_000.0;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.api.service;
+
+import com.api.service.interfaces.ProductService;
+import com.api.utility.CacheLinks;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Log4j2
+public class CacheWarmer {
+
+    private static final long READINESS_TIMEOUT_MINUTES = 5;
+
+    private final ProductService productService;
+    private final QueryHistory queryHistory;
+    private final int pagesToWarm;
+    private final int pageSize;
+    private final int recentQueriesToWarm;
+    private final boolean gateReadiness;
+    private final ExecutorService executorService;
+
+    @Autowired
+    public CacheWarmer(
+        final ProductService productService,
+        final QueryHistory queryHistory,
+        @Value("${api.warm-up.pages:3}") final int pagesToWarm,
+        @Value("${api.warm-up.page-size:10}") final int pageSize,
+        @Value("${api.warm-up.recent-queries:20}") final int recentQueriesToWarm,
+        @Value("${api.warm-up.concurrency:2}") final int concurrency,
+        @Value("${api.warm-up.gate-readiness:false}") final boolean gateReadiness
+    ) {
+        this.productService = productService;
+        this.queryHistory = queryHistory;
+        this.pagesToWarm = pagesToWarm;
+        this.pageSize = pageSize;
+        this.recentQueriesToWarm = recentQueriesToWarm;
+        this.gateReadiness = gateReadiness;
+        this.executorService = Executors.newFixedThreadPool(concurrency, newThreadFactory());
+    }
+
+    // Readiness only turns to ACCEPTING_TRAFFIC after the started listeners return, so blocking here gates it
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUpBeforeReadiness() {
+        if (!gateReadiness) return;
+        try {
+            warmUp().get(READINESS_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException | TimeoutException ex) {
+            log.warn("Cache warm-up didn't finish before readiness: "+ex.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        if (!gateReadiness) warmUp();
+    }
+
+    public CompletableFuture<Void> warmUp() {
+        final List<Runnable> tasks = new ArrayList<>();
+        tasks.add(() -> productService.findAll(Sort.by("description").ascending()));
+        tasks.add(productService::findAllWithLatestPrice);
+        for (int page = 0; page < pagesToWarm; page++) {
+            final PageRequest pageRequest = PageRequest.of(page, pageSize, Sort.by("description"));
+            tasks.add(() -> productService.warmUp(new QueryHistory.RecentQuery(CacheLinks.LISTING, "all", pageRequest)));
+        }
+        for (final QueryHistory.RecentQuery recentQuery : queryHistory.mostFrequent(recentQueriesToWarm))
+            tasks.add(() -> productService.warmUp(recentQuery));
+        queryHistory.decay();
+
+        log.info("Warming up the cache with "+tasks.size()+" queries");
+        return CompletableFuture.allOf(
+            tasks.stream()
+                .map(task -> CompletableFuture.runAsync(() -> runQuietly(task), executorService))
+                .toArray(CompletableFuture[]::new)
+        );
+    }
+
+    private void runQuietly(final Runnable task) {
+        try {
+            task.run();
+        }
+        catch (RuntimeException ex) {
+            log.warn("Cache warm-up query failed: "+ex.getMessage());
+        }
+    }
+
+    private static ThreadFactory newThreadFactory() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, "cache-warmer-"+threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void stop() {
+        executorService.shutdownNow();
+    }
+}
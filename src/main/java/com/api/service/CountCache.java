@@ -0,0 +1,47 @@
+package com.api.service;
+
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+@Component
+public class CountCache {
+
+    private static final int MAXIMUM_COUNTS = 10_000;
+
+    private final Map<String, Long> countsByLink = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+            return size() > MAXIMUM_COUNTS;
+        }
+    };
+
+    private long invalidations;
+
+    public synchronized Optional<Long> get(@NonNull final String link) {
+        return Optional.ofNullable(countsByLink.get(link));
+    }
+
+    public synchronized long stamp() {
+        return invalidations;
+    }
+
+    // Taken before the count is queried, the stamp keeps a count that may predate an invalidation from being cached
+    public synchronized void put(@NonNull final String link, final long count, final long invalidationStamp) {
+        if (invalidationStamp == invalidations) countsByLink.put(link, count);
+    }
+
+    public synchronized void invalidate(@NonNull final Predicate<String> predicate) {
+        invalidations++;
+        countsByLink.keySet().removeIf(predicate);
+    }
+
+    public synchronized void clear() {
+        invalidations++;
+        countsByLink.clear();
+    }
+}
@@ -0,0 +1,454 @@
+package com.api.service;
+
+import com.api.entity.Product;
+import com.api.repository.ProductRepository;
+import com.api.utility.SearchKeys;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+@Log4j2
+public class DescriptionIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final Sort SUPPORTED_SORT = Sort.by("description");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final Comparator<Product> ORDER =
+        Comparator.comparing((Product product) -> normalize(product.getDescription())).thenComparing(Product::getBarcode);
+    private static final Comparator<Map.Entry<Integer, Double>> RANKING =
+        Comparator.<Map.Entry<Integer, Double>>comparingDouble(Map.Entry::getValue).reversed()
+            .thenComparingInt(Map.Entry::getKey);
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final ExecutorService mergeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "description-index-merge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot;
+    private boolean mergeScheduled;
+    private Map<UUID, Product> putsDuringRebuild;
+
+    @Autowired
+    public DescriptionIndex(
+        final ProductRepository productRepository,
+        @Value("${api.description-index.enabled:true}") final boolean enabled
+    ) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+    }
+
+    // The catalog is read and indexed off the lock puts take, which are replayed onto the new snapshot if they land meanwhile
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) return;
+        synchronized (rebuildLock) {
+            final long startedAt = System.nanoTime();
+            synchronized (this) {
+                putsDuringRebuild = new HashMap<>();
+            }
+            final Snapshot rebuiltSnapshot;
+            try {
+                rebuiltSnapshot =
+                    new Snapshot(productRepository.findAll().stream().map(DescriptionIndex::copyOf).collect(Collectors.toList()));
+            }
+            catch (RuntimeException ex) {
+                synchronized (this) {
+                    putsDuringRebuild = null;
+                }
+                throw ex;
+            }
+
+            synchronized (this) {
+                snapshot = rebuiltSnapshot.withRecent(putsDuringRebuild);
+                putsDuringRebuild = null;
+                scheduleMerge();
+            }
+            log.info(
+                "Description index built with "+rebuiltSnapshot.products.length+" products, "+rebuiltSnapshot.postings.size()
+                    +" trigrams and "+rebuiltSnapshot.tokens.size()+" tokens in "+(System.nanoTime() - startedAt) / 1_000_000+"ms"
+            );
+        }
+    }
+
+    // Puts land in a short sorted run searched next to the snapshot, and one background merge folds a whole burst of them in
+    public synchronized void put(@NonNull final Product product) {
+        if (Objects.isNull(product.getId())) return;
+        if (Objects.nonNull(putsDuringRebuild)) putsDuringRebuild.put(product.getId(), copyOf(product));
+        if (Objects.isNull(snapshot)) return;
+
+        final Product indexedProduct = snapshot.productOf(product.getId());
+        if (Objects.nonNull(indexedProduct) && indexedProduct.equals(product)) return;
+
+        final Map<UUID, Product> recentById = new HashMap<>(snapshot.recentById);
+        recentById.put(product.getId(), copyOf(product));
+        snapshot = snapshot.withRecent(recentById);
+        scheduleMerge();
+    }
+
+    @PreDestroy
+    public void stop() {
+        mergeExecutor.shutdownNow();
+    }
+
+    public Optional<Page<Product>> findAllByDescriptionContaining(@NonNull final String expression, @NonNull final Pageable pageable) {
+        return search(expression, pageable, String::contains);
+    }
+
+    public Optional<Page<Product>> findAllByDescriptionStartingWith(@NonNull final String expression, @NonNull final Pageable pageable) {
+        final Snapshot currentSnapshot = snapshot;
+        if (!canAnswer(currentSnapshot, expression, pageable)) return Optional.empty();
+
+        final String needle = normalize(expression);
+        final int firstMatch = currentSnapshot.lowerBound(needle);
+        int lastMatch = firstMatch;
+        while (lastMatch < currentSnapshot.keys.length && currentSnapshot.keys[lastMatch].startsWith(needle)) lastMatch++;
+
+        final int[] candidates = new int[lastMatch - firstMatch];
+        for (int i = 0; i < candidates.length; i++) candidates[i] = firstMatch + i;
+        final int[] ordinals = currentSnapshot.matchesOf(candidates, needle, String::startsWith);
+        return Optional.of(currentSnapshot.toPage(ordinals, pageable));
+    }
+
+    public Optional<Page<Product>> findAllByDescriptionEndingWith(@NonNull final String expression, @NonNull final Pageable pageable) {
+        return search(expression, pageable, String::endsWith);
+    }
+
+    public Optional<List<Product>> suggest(@NonNull final String prefix, final int limit) {
+        final Snapshot currentSnapshot = snapshot;
+        if (Objects.isNull(currentSnapshot)) return Optional.empty();
+
+        final String needle = normalize(prefix);
+        final int[] candidates = new int[limit];
+        int numberOfCandidates = 0;
+        int ordinal = currentSnapshot.lowerBound(needle);
+        while (ordinal < currentSnapshot.keys.length && numberOfCandidates < limit
+            && currentSnapshot.keys[ordinal].startsWith(needle)) {
+            if (currentSnapshot.isCurrent(ordinal)) candidates[numberOfCandidates++] = ordinal;
+            ordinal++;
+        }
+
+        final int[] ordinals =
+            currentSnapshot.matchesOf(Arrays.copyOf(candidates, numberOfCandidates), needle, String::startsWith);
+        final List<Product> suggestions = new ArrayList<>(Math.min(limit, ordinals.length));
+        for (int i = 0; i < ordinals.length && i < limit; i++) suggestions.add(currentSnapshot.productAt(ordinals[i]));
+        return Optional.of(suggestions);
+    }
+
+    public Optional<List<Product>> findAllByDescriptionSimilarTo(@NonNull final String expression, final int limit) {
+        final Snapshot currentSnapshot = snapshot;
+        if (Objects.isNull(currentSnapshot)) return Optional.empty();
+
+        final Map<Integer, Double> scores = new HashMap<>();
+        for (final String expressionToken : tokensOf(normalize(expression))) {
+            final Map<Integer, Double> bestOfToken = new HashMap<>();
+            currentSnapshot.tokens.forEachWithin(expressionToken, maxDistanceOf(expressionToken), (token, distance) -> {
+                final double similarity = 1.0 - (double) distance / Math.max(expressionToken.length(), token.length());
+                for (final int ordinal : currentSnapshot.tokenPostings.get(token))
+                    if (currentSnapshot.isCurrent(ordinal)) bestOfToken.merge(ordinal, similarity, Math::max);
+            });
+            final int maxDistance = maxDistanceOf(expressionToken);
+            for (int recentOrdinal = 0; recentOrdinal < currentSnapshot.recentKeys.length; recentOrdinal++)
+                for (final String token : tokensOf(currentSnapshot.recentKeys[recentOrdinal])) {
+                    final int distance = BkTree.distanceOf(token, expressionToken, maxDistance);
+                    if (distance > maxDistance) continue;
+                    final double similarity = 1.0 - (double) distance / Math.max(expressionToken.length(), token.length());
+                    bestOfToken.merge(currentSnapshot.keys.length + recentOrdinal, similarity, Math::max);
+                }
+            bestOfToken.forEach((ordinal, similarity) -> scores.merge(ordinal, similarity, Double::sum));
+        }
+
+        final PriorityQueue<Map.Entry<Integer, Double>> ranked = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (final Map.Entry<Integer, Double> score : scores.entrySet()) {
+            ranked.offer(score);
+            if (ranked.size() > limit) ranked.poll();
+        }
+
+        final List<Map.Entry<Integer, Double>> best = new ArrayList<>(ranked);
+        best.sort(RANKING);
+        final List<Product> similarProducts = new ArrayList<>(best.size());
+        for (final Map.Entry<Integer, Double> score : best) similarProducts.add(currentSnapshot.productAt(score.getKey()));
+        return Optional.of(similarProducts);
+    }
+
+    public boolean canAnswer(@NonNull final String expression, @NonNull final Pageable pageable) {
+        return canAnswer(snapshot, expression, pageable);
+    }
+
+    private Optional<Page<Product>> search(
+        final String expression,
+        final Pageable pageable,
+        final BiPredicate<String, String> matcher
+    ) {
+        final Snapshot currentSnapshot = snapshot;
+        if (!canAnswer(currentSnapshot, expression, pageable)) return Optional.empty();
+
+        final String needle = normalize(expression);
+        final int[] ordinals = currentSnapshot.matchesOf(currentSnapshot.candidatesOf(needle), needle, matcher);
+        return Optional.of(currentSnapshot.toPage(ordinals, pageable));
+    }
+
+    private synchronized void scheduleMerge() {
+        if (mergeScheduled || snapshot.recentById.isEmpty() || mergeExecutor.isShutdown()) return;
+        mergeScheduled = true;
+        mergeExecutor.execute(this::merge);
+    }
+
+    private void merge() {
+        final Snapshot mergingSnapshot = snapshot;
+        final Snapshot mergedSnapshot;
+        try {
+            mergedSnapshot = mergingSnapshot.merged();
+        }
+        catch (RuntimeException ex) {
+            log.warn("Description index merge failed: "+ex.getMessage());
+            synchronized (this) {
+                mergeScheduled = false;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            mergeScheduled = false;
+            // A rebuild in the meantime already read every product from the database
+            if (snapshot.products == mergingSnapshot.products) {
+                final Map<UUID, Product> stillRecentById = new HashMap<>();
+                snapshot.recentById.forEach((id, product) -> {
+                    if (mergingSnapshot.recentById.get(id) != product) stillRecentById.put(id, product);
+                });
+                snapshot = mergedSnapshot.withRecent(stillRecentById);
+            }
+            scheduleMerge();
+        }
+    }
+
+    private boolean canAnswer(final Snapshot currentSnapshot, final String expression, final Pageable pageable) {
+        return Objects.nonNull(currentSnapshot)
+            && !expression.isEmpty()
+            && answersSort(pageable.getSort());
+    }
+
+    static boolean answersSort(final Sort sort) {
+        return sort.isUnsorted() || sort.equals(SUPPORTED_SORT);
+    }
+
+    private static String normalize(final String value) {
+        return SearchKeys.of(value);
+    }
+
+    private static Set<String> tokensOf(final String key) {
+        final Set<String> tokens = new HashSet<>();
+        for (final String token : TOKEN_SEPARATOR.split(key))
+            if (token.length() >= MIN_TOKEN_LENGTH) tokens.add(token);
+        return tokens;
+    }
+
+    // Short tokens like "1KG" only tolerate what would turn them into another size
+    private static int maxDistanceOf(final String token) {
+        if (token.length() <= 2) return 0;
+        return token.length() <= 5 ? 1 : 2;
+    }
+
+    private static Product copyOf(final Product product) {
+        return Product.builder()
+            .id(product.getId())
+            .description(product.getDescription())
+            .barcode(product.getBarcode())
+            .sequenceCode(product.getSequenceCode())
+            .build();
+    }
+
+    private static final class Snapshot {
+
+        private final Product[] products;
+        private final String[] keys;
+        private final Map<UUID, Product> productsById;
+        private final Map<String, int[]> postings;
+        private final Map<String, int[]> tokenPostings;
+        private final BkTree tokens;
+        // Put since the snapshot was built, they shadow their former selves and take the ordinals past the last product
+        private final Product[] recentProducts;
+        private final String[] recentKeys;
+        private final Map<UUID, Product> recentById;
+
+        private Snapshot(final Collection<Product> unsortedProducts) {
+            products = unsortedProducts.stream().sorted(ORDER).toArray(Product[]::new);
+            keys = Arrays.stream(products).map(product -> normalize(product.getDescription())).toArray(String[]::new);
+            productsById = Arrays.stream(products).collect(Collectors.toMap(Product::getId, product -> product));
+
+            final Map<String, List<Integer>> growingPostings = new HashMap<>();
+            for (int ordinal = 0; ordinal < keys.length; ordinal++)
+                for (final String gram : gramsOf(keys[ordinal]))
+                    growingPostings.computeIfAbsent(gram, __ -> new ArrayList<>()).add(ordinal);
+
+            postings = toPostings(growingPostings);
+
+            final Map<String, List<Integer>> growingTokenPostings = new HashMap<>();
+            for (int ordinal = 0; ordinal < keys.length; ordinal++)
+                for (final String token : tokensOf(keys[ordinal]))
+                    growingTokenPostings.computeIfAbsent(token, __ -> new ArrayList<>()).add(ordinal);
+
+            tokenPostings = toPostings(growingTokenPostings);
+            tokens = new BkTree();
+            tokenPostings.keySet().forEach(tokens::add);
+
+            recentProducts = new Product[0];
+            recentKeys = new String[0];
+            recentById = Collections.emptyMap();
+        }
+
+        private Snapshot(final Snapshot snapshot, final Map<UUID, Product> recentById) {
+            products = snapshot.products;
+            keys = snapshot.keys;
+            productsById = snapshot.productsById;
+            postings = snapshot.postings;
+            tokenPostings = snapshot.tokenPostings;
+            tokens = snapshot.tokens;
+
+            recentProducts = recentById.values().stream().sorted(ORDER).toArray(Product[]::new);
+            recentKeys = Arrays.stream(recentProducts).map(product -> normalize(product.getDescription())).toArray(String[]::new);
+            this.recentById = recentById;
+        }
+
+        private Snapshot withRecent(final Map<UUID, Product> recentById) {
+            return new Snapshot(this, recentById);
+        }
+
+        private Snapshot merged() {
+            final Map<UUID, Product> mergedById = new HashMap<>(productsById);
+            mergedById.putAll(recentById);
+            return new Snapshot(mergedById.values());
+        }
+
+        private Product productOf(final UUID id) {
+            final Product recentProduct = recentById.get(id);
+            return Objects.nonNull(recentProduct) ? recentProduct : productsById.get(id);
+        }
+
+        private Product productAt(final int ordinal) {
+            return ordinal < products.length ? products[ordinal] : recentProducts[ordinal - products.length];
+        }
+
+        private String keyAt(final int ordinal) {
+            return ordinal < keys.length ? keys[ordinal] : recentKeys[ordinal - keys.length];
+        }
+
+        // A product put again since the snapshot was built is only found through its recent copy
+        private boolean isCurrent(final int ordinal) {
+            return ordinal >= products.length || recentById.isEmpty() || !recentById.containsKey(products[ordinal].getId());
+        }
+
+        private int[] matchesOf(final int[] candidates, final String needle, final BiPredicate<String, String> matcher) {
+            final int[] matches = new int[candidates.length + recentKeys.length];
+            int numberOfMatches = 0;
+            for (final int candidate : candidates)
+                if (matcher.test(keys[candidate], needle) && isCurrent(candidate)) matches[numberOfMatches++] = candidate;
+
+            final int numberOfSnapshotMatches = numberOfMatches;
+            for (int recentOrdinal = 0; recentOrdinal < recentKeys.length; recentOrdinal++)
+                if (matcher.test(recentKeys[recentOrdinal], needle)) matches[numberOfMatches++] = keys.length + recentOrdinal;
+            if (numberOfMatches == numberOfSnapshotMatches) return Arrays.copyOf(matches, numberOfMatches);
+
+            final int[] mergedMatches = new int[numberOfMatches];
+            for (int i = 0, j = numberOfSnapshotMatches, merged = 0; merged < numberOfMatches; merged++)
+                mergedMatches[merged] = j == numberOfMatches || (i < numberOfSnapshotMatches && compare(matches[i], matches[j]) < 0)
+                    ? matches[i++]
+                    : matches[j++];
+            return mergedMatches;
+        }
+
+        private int compare(final int leftOrdinal, final int rightOrdinal) {
+            final int byKey = keyAt(leftOrdinal).compareTo(keyAt(rightOrdinal));
+            return byKey != 0 ? byKey : productAt(leftOrdinal).getBarcode().compareTo(productAt(rightOrdinal).getBarcode());
+        }
+
+        private int[] candidatesOf(final String needle) {
+            if (needle.length() < GRAM_LENGTH) {
+                final int[] everyOrdinal = new int[keys.length];
+                for (int i = 0; i < everyOrdinal.length; i++) everyOrdinal[i] = i;
+                return everyOrdinal;
+            }
+
+            final List<int[]> postingLists = new ArrayList<>();
+            for (final String gram : gramsOf(needle)) {
+                final int[] postingList = postings.get(gram);
+                if (Objects.isNull(postingList)) return new int[0];
+                postingLists.add(postingList);
+            }
+            postingLists.sort(Comparator.comparingInt(postingList -> postingList.length));
+
+            int[] candidates = postingLists.get(0);
+            for (int i = 1; i < postingLists.size() && candidates.length > 0; i++)
+                candidates = intersect(candidates, postingLists.get(i));
+            return candidates;
+        }
+
+        private int lowerBound(final String needle) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(needle) < 0) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+
+        private Page<Product> toPage(final int[] ordinals, final Pageable pageable) {
+            final int from = (int) Math.min(pageable.getOffset(), ordinals.length);
+            final int to = Math.min(from + pageable.getPageSize(), ordinals.length);
+            final List<Product> content = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) content.add(productAt(ordinals[i]));
+            return new PageImpl<>(content, pageable, ordinals.length);
+        }
+
+        private static Map<String, int[]> toPostings(final Map<String, List<Integer>> growingPostings) {
+            final Map<String, int[]> postings = new HashMap<>(growingPostings.size() * 4 / 3 + 1);
+            growingPostings.forEach((term, ordinals) ->
+                postings.put(term, ordinals.stream().mapToInt(Integer::intValue).toArray())
+            );
+            return postings;
+        }
+
+        private static Set<String> gramsOf(final String key) {
+            final Set<String> grams = new HashSet<>();
+            for (int i = 0; i + GRAM_LENGTH <= key.length(); i++) grams.add(key.substring(i, i + GRAM_LENGTH));
+            return grams;
+        }
+
+        private static int[] intersect(final int[] left, final int[] right) {
+            final int[] intersection = new int[Math.min(left.length, right.length)];
+            int size = 0;
+            for (int i = 0, j = 0; i < left.length && j < right.length;) {
+                if (left[i] < right[j]) i++;
+                else if (left[i] > right[j]) j++;
+                else {
+                    intersection[size++] = left[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(intersection, size);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.api.service;
+
+import com.api.entity.Product;
+import com.api.repository.ProductRepository;
+import com.api.utility.SearchKeys;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+// Every mode matches on the search key, as the index does, so both return the same rows whichever answers
+@Component
+public class DescriptionSearch {
+
+    public enum Mode { LIKE, TRIGRAM }
+
+    private static final Sort SEARCH_KEY_ORDER = Sort.by("searchKey", "barcode");
+    private static final Sort NATIVE_SEARCH_KEY_ORDER = Sort.by("search_key", "barcode");
+
+    private final ProductRepository productRepository;
+    private final Mode mode;
+
+    @Autowired
+    public DescriptionSearch(
+        final ProductRepository productRepository,
+        @Value("${api.description-search.mode:like}") final Mode mode
+    ) {
+        this.productRepository = productRepository;
+        this.mode = mode;
+    }
+
+    public Page<Product> findAllContaining(@NonNull final String expression, @NonNull final Pageable pageable) {
+        if (mode == Mode.LIKE)
+            return productRepository.findAllBySearchKeyContaining(SearchKeys.of(expression), inSearchKeyOrder(pageable, SEARCH_KEY_ORDER));
+        return productRepository.findAllBySearchKeyMatching(
+            "%"+escape(SearchKeys.of(expression))+"%", inSearchKeyOrder(pageable, NATIVE_SEARCH_KEY_ORDER)
+        );
+    }
+
+    public Page<Product> findAllStartingWith(@NonNull final String expression, @NonNull final Pageable pageable) {
+        return productRepository.findAllBySearchKeyStartingWith(SearchKeys.of(expression), inSearchKeyOrder(pageable, SEARCH_KEY_ORDER));
+    }
+
+    public Page<Product> findAllEndingWith(@NonNull final String expression, @NonNull final Pageable pageable) {
+        if (mode == Mode.LIKE)
+            return productRepository.findAllBySearchKeyEndingWith(SearchKeys.of(expression), inSearchKeyOrder(pageable, SEARCH_KEY_ORDER));
+        return productRepository.findAllBySearchKeyMatching(
+            "%"+escape(SearchKeys.of(expression)), inSearchKeyOrder(pageable, NATIVE_SEARCH_KEY_ORDER)
+        );
+    }
+
+    public Slice<Product> findSliceContaining(@NonNull final String expression, @NonNull final Pageable pageable) {
+        if (mode == Mode.LIKE)
+            return productRepository.findSliceBySearchKeyContaining(SearchKeys.of(expression), inSearchKeyOrder(pageable, SEARCH_KEY_ORDER));
+        return productRepository.findSliceBySearchKeyMatching(
+            "%"+escape(SearchKeys.of(expression))+"%", inSearchKeyOrder(pageable, NATIVE_SEARCH_KEY_ORDER)
+        );
+    }
+
+    public Slice<Product> findSliceStartingWith(@NonNull final String expression, @NonNull final Pageable pageable) {
+        return productRepository.findSliceBySearchKeyStartingWith(SearchKeys.of(expression), inSearchKeyOrder(pageable, SEARCH_KEY_ORDER));
+    }
+
+    public Slice<Product> findSliceEndingWith(@NonNull final String expression, @NonNull final Pageable pageable) {
+        if (mode == Mode.LIKE)
+            return productRepository.findSliceBySearchKeyEndingWith(SearchKeys.of(expression), inSearchKeyOrder(pageable, SEARCH_KEY_ORDER));
+        return productRepository.findSliceBySearchKeyMatching(
+            "%"+escape(SearchKeys.of(expression)), inSearchKeyOrder(pageable, NATIVE_SEARCH_KEY_ORDER)
+        );
+    }
+
+    private static Pageable inSearchKeyOrder(final Pageable pageable, final Sort searchKeyOrder) {
+        if (!DescriptionIndex.answersSort(pageable.getSort())) return pageable;
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), searchKeyOrder);
+    }
+
+    // Derived queries escape wildcards by themselves, native ones have to be given an escaped pattern
+    static String escape(final String expression) {
+        return expression.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,31 @@
+package com.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// It runs ahead of any cache warm-up, which would otherwise cache products without their latest price
+@Component
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Log4j2
+public class PriceSchema {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationStartedEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfillLatestPrices() {
+        final int updatedProducts = jdbcTemplate.update(
+            "UPDATE products pro SET latest_price_id = "+
+            "(SELECT pri.id FROM prices pri WHERE pri.product_id = pro.id ORDER BY pri.instant DESC LIMIT 1) "+
+            "WHERE pro.latest_price_id IS NULL AND EXISTS (SELECT 1 FROM prices pri WHERE pri.product_id = pro.id)"
+        );
+        if (updatedProducts > 0) log.info("Latest price filled in for "+updatedProducts+" products");
+    }
+}
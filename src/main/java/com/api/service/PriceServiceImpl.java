@@ -1,8 +1,9 @@
 package com.api.service;
 
-import com.api.entity.Price;
+import com.api.projection.PriceWithInstant;
 import com.api.repository.PriceRepository;
 import com.api.service.interfaces.PriceService;
+import com.api.utility.CacheLinks;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,36 +25,35 @@ import java.util.UUID;
 public class PriceServiceImpl implements PriceService {
 
     private final PriceRepository priceRepository;
-    private final CacheManager<Price, UUID> priceCacheManager;
+    private final CacheManager<PriceWithInstant, UUID> priceCacheManager;
 
     @Override
-    public Price findById(@NonNull UUID id) {
-        return priceCacheManager.sync(id.toString(),
-            () -> priceRepository.findById(id).map(List::of).orElse(Collections.emptyList())
+    public PriceWithInstant findById(@NonNull UUID id) {
+        return priceCacheManager.sync(CacheLinks.of(CacheLinks.PRICE_BY_ID, id.toString()),
+            () -> priceRepository.findPriceWithInstantById(id).map(List::of).orElse(Collections.emptyList())
         )
         .map(l -> l.get(0))
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Price not found"));
     }
 
     @Override
-    public List<Price> findByProductBarcode(@NonNull String barcode, @NonNull Sort sort) {
-        final Optional<List<Price>> optionalPrices =
-               priceCacheManager.sync(barcode+sort, () -> priceRepository.findByProductBarcode(barcode, sort));
+    public List<PriceWithInstant> findByProductBarcode(@NonNull String barcode, @NonNull Sort sort) {
+        final Optional<List<PriceWithInstant>> optionalPrices =
+            priceCacheManager.sync(
+                CacheLinks.of(CacheLinks.PRICE_HISTORY, barcode+sort),
+                () -> priceRepository.findAllPricesWithInstantByProductBarcode(barcode, sort)
+            );
         if (optionalPrices.isPresent()) return optionalPrices.get();
         throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
     }
 
     @Override
-    public List<Price> findByProductBarcode(@NonNull String barcode, @NonNull Pageable pageable) {
-        final Optional<List<Price>> optionalOfPrices = priceCacheManager.sync(
-            generateLink(barcode, pageable),
-            () -> priceRepository.findByProductBarcode(barcode, pageable)
+    public List<PriceWithInstant> findByProductBarcode(@NonNull String barcode, @NonNull Pageable pageable) {
+        final Optional<List<PriceWithInstant>> optionalOfPrices = priceCacheManager.sync(
+            CacheLinks.ofPage(CacheLinks.PRICE_HISTORY, barcode, pageable),
+            () -> priceRepository.findAllPricesWithInstantByProductBarcode(barcode, pageable)
         );
         if (optionalOfPrices.isPresent()) return optionalOfPrices.get();
         throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
     }
-
-    private String generateLink(final String barcode, final Pageable pageable) {
-        return String.format("%s-pag=%s-%s", barcode, pageable.getPageNumber(), pageable.getPageSize());
-    }
 }
\ No newline at end of file
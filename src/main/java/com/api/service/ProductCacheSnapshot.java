@@ -0,0 +1,194 @@
+package com.api.service;
+
+import com.api.entity.Price;
+import com.api.entity.Product;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+
+@Component
+@Log4j2
+public class ProductCacheSnapshot {
+
+    private static final int MAGIC = 0x53415647;
+    private static final int FORMAT_VERSION = 1;
+    private static final int PRICES_NOT_LOADED = -1;
+
+    private final Path path;
+    private final boolean enabled;
+
+    @Autowired
+    public ProductCacheSnapshot(
+        @Value("${api.cache-snapshot.path:${java.io.tmpdir}/product-cache.snapshot}") final String path,
+        @Value("${api.cache-snapshot.enabled:true}") final boolean enabled
+    ) {
+        this.path = Paths.get(path);
+        this.enabled = enabled;
+    }
+
+    // Layout: header, a table of distinct products and then every entry as a list of indexes into that table
+    public void write(@NonNull final String databaseMarker, @NonNull final List<CacheEntry<Product>> cacheEntries) {
+        if (!enabled) return;
+
+        final Map<Product, Integer> indexByProduct = new IdentityHashMap<>();
+        final List<Product> products = new ArrayList<>();
+        for (final CacheEntry<Product> cacheEntry : cacheEntries)
+            for (final Product product : cacheEntry.getTargets())
+                indexByProduct.computeIfAbsent(product, p -> {
+                    products.add(p);
+                    return products.size() - 1;
+                });
+
+        final Path temporaryPath = path.resolveSibling(path.getFileName()+".tmp");
+        try (final DataOutputStream output =
+                 new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            writeString(output, databaseMarker);
+
+            output.writeInt(products.size());
+            for (final Product product : products) writeProduct(output, product);
+
+            output.writeInt(cacheEntries.size());
+            for (final CacheEntry<Product> cacheEntry : cacheEntries) {
+                writeString(output, cacheEntry.getLink());
+                output.writeLong(cacheEntry.getWrittenAt());
+                output.writeInt(cacheEntry.getTargets().size());
+                for (final Product product : cacheEntry.getTargets()) output.writeInt(indexByProduct.get(product));
+            }
+        }
+        catch (IOException ex) {
+            log.warn("Couldn't write the product cache snapshot: "+ex.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Product cache snapshot written with "+cacheEntries.size()+" links at "+databaseMarker);
+        }
+        catch (IOException ex) {
+            log.warn("Couldn't replace the product cache snapshot: "+ex.getMessage());
+        }
+    }
+
+    public Optional<List<CacheEntry<Product>>> read(@NonNull final String expectedDatabaseMarker) {
+        if (!enabled || !Files.isRegularFile(path)) return Optional.empty();
+
+        try (final FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer input = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+            if (input.getInt() != MAGIC || input.getInt() != FORMAT_VERSION) return discard("unknown format");
+
+            final String databaseMarker = readString(input);
+            if (!databaseMarker.equals(expectedDatabaseMarker))
+                return discard("taken at "+databaseMarker+" while the database is at "+expectedDatabaseMarker);
+
+            final Product[] products = new Product[input.getInt()];
+            for (int i = 0; i < products.length; i++) products[i] = readProduct(input);
+
+            final int numberOfEntries = input.getInt();
+            final List<CacheEntry<Product>> cacheEntries = new ArrayList<>(numberOfEntries);
+            for (int i = 0; i < numberOfEntries; i++) {
+                final String link = readString(input);
+                final long writtenAt = input.getLong();
+                final int numberOfTargets = input.getInt();
+                final List<Product> targets = new ArrayList<>(numberOfTargets);
+                for (int j = 0; j < numberOfTargets; j++) targets.add(products[input.getInt()]);
+                cacheEntries.add(new CacheEntry<>(link, targets, writtenAt));
+            }
+            return Optional.of(cacheEntries);
+        }
+        catch (
+            IOException | BufferUnderflowException | NegativeArraySizeException
+            | IllegalArgumentException | IndexOutOfBoundsException ex
+        ) {
+            return discard("unreadable ("+ex+")");
+        }
+    }
+
+    private Optional<List<CacheEntry<Product>>> discard(final String reason) {
+        log.info("Discarding the product cache snapshot: "+reason);
+        try {
+            Files.deleteIfExists(path);
+        }
+        catch (IOException ex) {
+            log.warn("Couldn't delete the product cache snapshot: "+ex.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    private static void writeProduct(final DataOutputStream output, final Product product) throws IOException {
+        writeUuid(output, product.getId());
+        writeString(output, product.getDescription());
+        writeString(output, product.getBarcode());
+        output.writeInt(product.getSequenceCode());
+
+        if (!product.pricesAreLoaded()) {
+            output.writeInt(PRICES_NOT_LOADED);
+            return;
+        }
+        output.writeInt(product.getPrices().size());
+        for (final Price price : product.getPrices()) {
+            writeUuid(output, price.getId());
+            writeString(output, price.getValue().toPlainString());
+            output.writeLong(price.getInstant().getEpochSecond());
+            output.writeInt(price.getInstant().getNano());
+        }
+    }
+
+    private static Product readProduct(final ByteBuffer input) {
+        final Product product = Product.builder()
+            .id(readUuid(input))
+            .description(readString(input))
+            .barcode(readString(input))
+            .sequenceCode(input.getInt())
+            .build();
+
+        final int numberOfPrices = input.getInt();
+        for (int i = 0; i < numberOfPrices; i++) {
+            final UUID id = readUuid(input);
+            final BigDecimal value = new BigDecimal(readString(input));
+            final Instant instant = Instant.ofEpochSecond(input.getLong(), input.getInt());
+            product.addPrice(new Price(id, value, instant, null));
+        }
+        return product;
+    }
+
+    private static void writeUuid(final DataOutputStream output, final UUID uuid) throws IOException {
+        output.writeLong(uuid.getMostSignificantBits());
+        output.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(final ByteBuffer input) {
+        return new UUID(input.getLong(), input.getLong());
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer input) {
+        final byte[] bytes = new byte[input.getInt()];
+        input.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
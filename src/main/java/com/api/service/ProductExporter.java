@@ -0,0 +1,138 @@
+package com.api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Objects;
+
+// Postgres only honors the fetch size inside a transaction, which the caller must have opened
+@Component
+public class ProductExporter {
+
+    private static final int FETCH_SIZE = 500;
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final String PRODUCTS_QUERY =
+        "SELECT pro.description, pro.sequence_code, pro.barcode FROM products pro ORDER BY pro.description, pro.id";
+    private static final String PRODUCTS_WITH_LATEST_PRICE_QUERY =
+        "SELECT pro.description, pro.sequence_code, pro.barcode, pri.value, pri.instant FROM products pro "+
+        "LEFT JOIN prices pri ON pri.id = pro.latest_price_id "+
+        "ORDER BY pro.description, pro.id";
+
+    @RequiredArgsConstructor
+    @Getter
+    public enum Format {
+        NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ProductExporter(final DataSource dataSource, final ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(@NonNull final Format format, final boolean withLatestPrice, @NonNull final OutputStream outputStream) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        final String query = withLatestPrice ? PRODUCTS_WITH_LATEST_PRICE_QUERY : PRODUCTS_QUERY;
+        try {
+            if (format == Format.CSV) exportAsCsv(query, withLatestPrice, writer);
+            else exportAsNdjson(query, withLatestPrice, writer);
+        }
+        catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        writer.flush();
+    }
+
+    private void exportAsNdjson(final String query, final boolean withLatestPrice, final Writer writer) throws IOException {
+        final JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(writer);
+        jsonGenerator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        jdbcTemplate.query(query, (RowCallbackHandler) resultSet -> writeRow(() -> {
+            jsonGenerator.writeStartObject();
+            jsonGenerator.writeStringField("description", resultSet.getString("description"));
+            jsonGenerator.writeNumberField("sequenceCode", resultSet.getInt("sequence_code"));
+            jsonGenerator.writeStringField("barcode", resultSet.getString("barcode"));
+            if (withLatestPrice) {
+                final BigDecimal value = resultSet.getBigDecimal("value");
+                if (Objects.isNull(value)) jsonGenerator.writeNullField("latestPrice");
+                else {
+                    jsonGenerator.writeObjectFieldStart("latestPrice");
+                    jsonGenerator.writeNumberField("value", value);
+                    jsonGenerator.writeStringField("instant", resultSet.getTimestamp("instant").toInstant().toString());
+                    jsonGenerator.writeEndObject();
+                }
+            }
+            jsonGenerator.writeEndObject();
+            jsonGenerator.writeRaw('\n');
+        }));
+        jsonGenerator.flush();
+    }
+
+    private void exportAsCsv(final String query, final boolean withLatestPrice, final Writer writer) throws IOException {
+        writer.write(withLatestPrice ? "description,sequenceCode,barcode,latestPrice,latestPriceInstant\n" : "description,sequenceCode,barcode\n");
+
+        jdbcTemplate.query(query, (RowCallbackHandler) resultSet -> writeRow(() -> {
+            writer.write(escapeCsv(resultSet.getString("description")));
+            writer.write(',');
+            writer.write(Integer.toString(resultSet.getInt("sequence_code")));
+            writer.write(',');
+            writer.write(resultSet.getString("barcode"));
+            if (withLatestPrice) {
+                final BigDecimal value = resultSet.getBigDecimal("value");
+                final Timestamp instant = resultSet.getTimestamp("instant");
+                writer.write(',');
+                if (Objects.nonNull(value)) writer.write(value.toPlainString());
+                writer.write(',');
+                if (Objects.nonNull(instant)) writer.write(instant.toInstant().toString());
+            }
+            writer.write('\n');
+        }));
+    }
+
+    private static String escapeCsv(final String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"'+value.replace("\"", "\"\"")+'"';
+    }
+
+    // A client that hangs up surfaces as an IOException, which is carried out of the row callback to stop the cursor
+    private static void writeRow(final RowWriter rowWriter) throws SQLException {
+        try {
+            rowWriter.write();
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+
+        void write() throws IOException, SQLException;
+    }
+}
@@ -2,6 +2,7 @@ package com.api.service;
 
 import com.api.entity.Product;
 import com.api.service.interfaces.ProductExternalService;
+import com.api.utility.SessionInstance;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -33,12 +34,15 @@ public class ProductExternalServiceImpl implements ProductExternalService {
         return httpHeaders;
     }
 
-    private MultiValueMap<String, String> buildMultipartBodyWithBarcode(final String barcode) {
+    private MultiValueMap<String, String> buildMultipartBodyWithBarcode(
+        final String barcode,
+        final SessionInstance sessionInstance
+    ) {
         final MultiValueMap<String, String> multipartBody = new LinkedMultiValueMap<>(6);
-        multipartBody.add("p_request", productSessionInstance.getSessionInstance().getAjaxIdentifier());
+        multipartBody.add("p_request", sessionInstance.getAjaxIdentifier());
         multipartBody.add("p_flow_id", "171");
         multipartBody.add("p_flow_step_id", "2");
-        multipartBody.add("p_instance", productSessionInstance.getSessionInstance().getSessionId());
+        multipartBody.add("p_instance", sessionInstance.getSessionId());
         multipartBody.add("p_debug", "");
         multipartBody.addAll("p_arg_names", List.of("P2_CURSOR", "P2_LOJA_ID", "P2_COD1"));
         multipartBody.addAll("p_arg_values", List.of("B", "221", barcode));
@@ -47,25 +51,32 @@ public class ProductExternalServiceImpl implements ProductExternalService {
 
     @Override
     public Optional<Product> fetchByBarcode(@NonNull final String barcode) {
+        // The session is read once, so a failure is blamed on the session the request actually carried
+        final SessionInstance sessionInstance = productSessionInstance.getSessionInstance();
         final HttpEntity<MultiValueMap<String, String>> httpEntity =
-            new HttpEntity<>(buildMultipartBodyWithBarcode(barcode), buildHttpHeaders());
+            new HttpEntity<>(buildMultipartBodyWithBarcode(barcode, sessionInstance), buildHttpHeaders());
 
         log.info("Fetching for information about a product by barcode "+barcode);
 
         return treatError(() ->
             restTemplate.postForObject("/wwv_flow.show", httpEntity, Product.class),
-            barcode
+            barcode,
+            sessionInstance
         );
     }
 
-    private Optional<Product> treatError(final Supplier<Product> productSupplier, final String barcode) {
+    private Optional<Product> treatError(
+        final Supplier<Product> productSupplier,
+        final String barcode,
+        final SessionInstance sessionInstance
+    ) {
         try {
             return Optional.of(productSupplier.get());
         }
         catch (Exception exception) {
             if (verifyIfProductIsNotFoundException(exception)) return Optional.empty();
 
-            productSessionInstance.reloadSessionInstance();
+            productSessionInstance.reloadSessionInstance(sessionInstance);
             return fetchByBarcode(barcode);
         }
     }
@@ -1,40 +1,68 @@
 package com.api.service;
 
+import com.api.entity.Price;
 import com.api.entity.Product;
+import com.api.projection.ProductCursor;
 import com.api.projection.SimpleProductWithStatus;
 import com.api.repository.ProductRepository;
 import com.api.service.interfaces.ProductExternalService;
 import com.api.service.interfaces.ProductService;
+import com.api.utility.CacheLinks;
+import com.api.utility.SearchKeys;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class ProductServiceImpl implements ProductService {
 
+    private static final long BATCH_UPSTREAM_TIMEOUT_SECONDS = 30;
+
     private final ProductRepository productRepository;
     private final ProductExternalService productExternalService;
     private final CacheManager<Product, UUID> productCacheManager;
-    private final long[] totalOfItems = new long[1];
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final QueryHistory queryHistory;
+    private final DescriptionIndex descriptionIndex;
+    private final DescriptionSearch descriptionSearch;
+    private final CountCache countCache;
+    private final ExecutorService upstreamExecutor;
+    private final ProductExporter productExporter;
+    private final TransactionTemplate transactionTemplate;
 
+    @Transactional
     public SimpleProductWithStatus getByBarcodeAndSaveIfNecessary(@NonNull final String barcode) {
+        final String barcodeLink = CacheLinks.of(CacheLinks.BARCODE, barcode);
+        if (productCacheManager.isMarkedMissing(barcodeLink))
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+
         final Optional<List<Product>> productListOptional =
             productCacheManager.sync(
-                barcode,
+                barcodeLink,
                 () -> productRepository.findByBarcode(barcode).map(List::of).orElse(Collections.emptyList())
             );
 
@@ -42,67 +70,388 @@ public class ProductServiceImpl implements ProductService {
             return productListOptional.get().get(0).toSimpleProductWithStatus(HttpStatus.OK);
 
         final Product newProduct = productExternalService.fetchByBarcode(barcode)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+            .orElseThrow(() -> {
+                productCacheManager.markMissing(barcodeLink);
+                return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+            });
 
         save(newProduct);
         return newProduct.toSimpleProductWithStatus(HttpStatus.CREATED);
     }
 
+    // No transaction is held while upstream is waited on, the inserts open their own once every fetch is back
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, SimpleProductWithStatus> getAllByBarcodeAndSaveIfNecessary(@NonNull final Collection<String> barcodes) {
+        final Set<String> distinctBarcodes = new LinkedHashSet<>(barcodes);
+        final Map<String, SimpleProductWithStatus> lookups = new HashMap<>();
+        final List<String> barcodesToQuery = new ArrayList<>();
+        for (final String barcode : distinctBarcodes) {
+            if (productCacheManager.isMarkedMissing(CacheLinks.of(CacheLinks.BARCODE, barcode)))
+                lookups.put(barcode, new SimpleProductWithStatus(null, HttpStatus.NOT_FOUND));
+            else barcodesToQuery.add(barcode);
+        }
+
+        if (!barcodesToQuery.isEmpty())
+            for (final Product product : productRepository.findAllByBarcodeIn(barcodesToQuery))
+                lookups.put(product.getBarcode(), product.toSimpleProductWithStatus(HttpStatus.OK));
+
+        final List<String> missingBarcodes = new ArrayList<>();
+        for (final String barcode : barcodesToQuery)
+            if (!lookups.containsKey(barcode)) missingBarcodes.add(barcode);
+
+        final List<Product> newProducts = new ArrayList<>();
+        fetchAllByBarcode(missingBarcodes).forEach((barcode, fetch) -> {
+            try {
+                final Optional<Product> fetchedProduct = fetch.get();
+                if (fetchedProduct.isPresent()) {
+                    newProducts.add(fetchedProduct.get());
+                    lookups.put(barcode, fetchedProduct.get().toSimpleProductWithStatus(HttpStatus.CREATED));
+                    return;
+                }
+                productCacheManager.markMissing(CacheLinks.of(CacheLinks.BARCODE, barcode));
+                lookups.put(barcode, new SimpleProductWithStatus(null, HttpStatus.NOT_FOUND));
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while fetching products");
+            }
+            catch (CancellationException ex) {
+                lookups.put(barcode, new SimpleProductWithStatus(null, HttpStatus.GATEWAY_TIMEOUT));
+            }
+            catch (ExecutionException ex) {
+                lookups.put(barcode, new SimpleProductWithStatus(null, HttpStatus.BAD_GATEWAY));
+            }
+        });
+
+        if (!newProducts.isEmpty()) saveAllNew(newProducts, lookups);
+
+        final Map<String, SimpleProductWithStatus> orderedLookups = new LinkedHashMap<>();
+        distinctBarcodes.forEach(barcode -> orderedLookups.put(barcode, lookups.get(barcode)));
+        return orderedLookups;
+    }
+
+    private Map<String, Future<Optional<Product>>> fetchAllByBarcode(final List<String> barcodes) {
+        final Map<String, Future<Optional<Product>>> fetches = new LinkedHashMap<>();
+        if (barcodes.isEmpty()) return fetches;
+
+        final List<Callable<Optional<Product>>> tasks = new ArrayList<>(barcodes.size());
+        for (final String barcode : barcodes) tasks.add(() -> productExternalService.fetchByBarcode(barcode));
+        try {
+            final List<Future<Optional<Product>>> futures =
+                upstreamExecutor.invokeAll(tasks, BATCH_UPSTREAM_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            for (int i = 0; i < barcodes.size(); i++) fetches.put(barcodes.get(i), futures.get(i));
+            return fetches;
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while fetching products");
+        }
+    }
+
+    // A barcode some other request inserted meanwhile rolls the batch back, so then each row is tried on its own
+    private void saveAllNew(final List<Product> newProducts, final Map<String, SimpleProductWithStatus> lookups) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.saveAll(newProducts);
+                newProducts.forEach(newProduct -> cacheInvalidationBus.publish(newProduct, true));
+            });
+        }
+        catch (DataIntegrityViolationException ex) {
+            for (final Product newProduct : newProducts)
+                lookups.put(newProduct.getBarcode(), saveOrFindExisting(unsavedCopyOf(newProduct)));
+        }
+    }
+
+    private SimpleProductWithStatus saveOrFindExisting(final Product newProduct) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.save(newProduct);
+                cacheInvalidationBus.publish(newProduct, true);
+            });
+            return newProduct.toSimpleProductWithStatus(HttpStatus.CREATED);
+        }
+        catch (DataIntegrityViolationException ex) {
+            return productRepository.findByBarcode(newProduct.getBarcode())
+                .map(existingProduct -> existingProduct.toSimpleProductWithStatus(HttpStatus.OK))
+                .orElseGet(() -> new SimpleProductWithStatus(null, HttpStatus.CONFLICT));
+        }
+    }
+
+    // The rolled back batch left its ids behind, which would make a retry merge instead of insert
+    private static Product unsavedCopyOf(final Product product) {
+        final Product copy = Product.builder()
+            .description(product.getDescription())
+            .barcode(product.getBarcode())
+            .sequenceCode(product.getSequenceCode())
+            .build();
+        product.getPrices().forEach(price -> copy.addPrice(new Price(price.getValue(), price.getInstant(), null)));
+        return copy;
+    }
+
+    @Transactional
     public void save(@NonNull final Product product) {
+        final boolean isNewProduct = Objects.isNull(product.getId());
         productRepository.save(product);
-        productCacheManager.evictAll();
+        cacheInvalidationBus.publish(product, isNewProduct);
+    }
+
+    // Called from the streaming thread, whose transaction is what lets the cursor fetch in chunks
+    @Override
+    public void exportAll(
+        @NonNull final ProductExporter.Format format,
+        final boolean withLatestPrice,
+        @NonNull final OutputStream outputStream
+    ) throws IOException {
+        productExporter.export(format, withLatestPrice, outputStream);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Product> suggest(@NonNull final String prefix, final int limit) {
+        return descriptionIndex.suggest(prefix, limit)
+            .orElseGet(() -> productRepository
+                .findSliceBySearchKeyStartingWith(SearchKeys.of(prefix), PageRequest.of(0, limit, Sort.by("description")))
+                .getContent()
+            );
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Product> findAllByDescriptionSimilarTo(@NonNull final String description, final int limit) {
+        return descriptionIndex.findAllByDescriptionSimilarTo(description, limit)
+            .orElseGet(() -> descriptionSearch
+                .findSliceContaining(description, PageRequest.of(0, limit, Sort.by("description")))
+                .getContent()
+            );
     }
 
     @Override
     public List<Product> findAllWithLatestPrice() {
         return productCacheManager
-            .sync("withLatestPrice", productRepository::findAllWithLastPrice)
+            .sync(CacheLinks.LATEST_PRICE, productRepository::findAllWithLastPrice)
             .orElse(Collections.emptyList());
     }
 
     @Override
     public List<Product> findAll(@NonNull Sort sort) {
         return productCacheManager
-            .sync(sort.toString(), () -> productRepository.findAll(sort))
+            .sync(CacheLinks.of(CacheLinks.LISTING, sort.toString()), () -> productRepository.findAll(sort))
             .orElse(Collections.emptyList());
     }
 
     @Override
     public Page<Product> findAll(@NonNull Pageable pageable) {
-        return getAllBySettings("all", pageable, (__, ___) -> productRepository.findAll(pageable));
+        return getPageBySettings(
+            CacheLinks.LISTING,
+            "all",
+            pageable,
+            (__, ___) -> productRepository.findSliceOfAll(pageable),
+            (__, ___) -> productRepository.findAll(pageable)
+        );
+    }
+
+    @Override
+    public Slice<Product> findSliceOfAll(@NonNull Pageable pageable) {
+        return getSliceBySettings(CacheLinks.LISTING, "all", pageable, (__, requested) -> productRepository.findSliceOfAll(requested));
+    }
+
+    @Override
+    public Slice<Product> findAllAfter(@NonNull final Optional<ProductCursor> after, final int limit) {
+        final String key = CacheLinks.of(
+            CacheLinks.LISTING, "after="+after.map(ProductCursor::toString).orElse("")+"-limit="+limit
+        );
+        final List<Product> products = productCacheManager
+            .sync(key, () -> after
+                .map(cursor -> productRepository.findAllAfterInDescriptionOrder(
+                    cursor.getDescription(), cursor.getId().toString(), limit + 1
+                ))
+                .orElseGet(() -> productRepository.findFirstInDescriptionOrder(limit + 1))
+            )
+            .orElse(Collections.emptyList());
+        final boolean hasNext = products.size() > limit;
+        return new SliceImpl<>(hasNext ? products.subList(0, limit) : products, PageRequest.ofSize(limit), hasNext);
+    }
+
+    @Override
+    public long count() {
+        final String countLink = CacheLinks.of(CacheLinks.LISTING, "all");
+        return countCache.get(countLink).orElseGet(() -> {
+            final long invalidationStamp = countCache.stamp();
+            final long count = productRepository.count();
+            countCache.put(countLink, count, invalidationStamp);
+            return count;
+        });
     }
 
     @Override
     public Page<Product> findAllByDescriptionIgnoreCaseContaining(@NonNull String description, @NonNull Pageable pageable) {
-        return getAllBySettings(description, pageable, productRepository::findAllByDescriptionIgnoreCaseContaining);
+        return descriptionIndex.findAllByDescriptionContaining(description, pageable)
+            .orElseGet(() -> getPageBySettings(
+                CacheLinks.CONTAINS,
+                description,
+                pageable,
+                descriptionSearch::findSliceContaining,
+                descriptionSearch::findAllContaining
+            ));
+    }
+
+    @Override
+    public Slice<Product> findSliceByDescriptionIgnoreCaseContaining(@NonNull String description, @NonNull Pageable pageable) {
+        return descriptionIndex.findAllByDescriptionContaining(description, pageable)
+            .<Slice<Product>>map(productPage -> productPage)
+            .orElseGet(() -> getSliceBySettings(
+                CacheLinks.CONTAINS, description, pageable, descriptionSearch::findSliceContaining
+            ));
     }
 
     @Override
     public Page<Product> findAllByDescriptionIgnoreCaseStartingWith(String description, Pageable pageable) {
-        return getAllBySettings(description, pageable, productRepository::findAllByDescriptionIgnoreCaseStartingWith);
+        return descriptionIndex.findAllByDescriptionStartingWith(description, pageable)
+            .orElseGet(() -> getPageBySettings(
+                CacheLinks.STARTS_WITH,
+                description,
+                pageable,
+                descriptionSearch::findSliceStartingWith,
+                descriptionSearch::findAllStartingWith
+            ));
+    }
+
+    @Override
+    public Slice<Product> findSliceByDescriptionIgnoreCaseStartingWith(String description, Pageable pageable) {
+        return descriptionIndex.findAllByDescriptionStartingWith(description, pageable)
+            .<Slice<Product>>map(productPage -> productPage)
+            .orElseGet(() -> getSliceBySettings(
+                CacheLinks.STARTS_WITH, description, pageable, descriptionSearch::findSliceStartingWith
+            ));
     }
 
     @Override
     public Page<Product> findAllByDescriptionIgnoreCaseEndingWith(String description, Pageable pageable) {
-        return getAllBySettings(description, pageable, productRepository::findAllByDescriptionIgnoreCaseEndingWith);
+        return descriptionIndex.findAllByDescriptionEndingWith(description, pageable)
+            .orElseGet(() -> getPageBySettings(
+                CacheLinks.ENDS_WITH,
+                description,
+                pageable,
+                descriptionSearch::findSliceEndingWith,
+                descriptionSearch::findAllEndingWith
+            ));
+    }
+
+    @Override
+    public Slice<Product> findSliceByDescriptionIgnoreCaseEndingWith(String description, Pageable pageable) {
+        return descriptionIndex.findAllByDescriptionEndingWith(description, pageable)
+            .<Slice<Product>>map(productPage -> productPage)
+            .orElseGet(() -> getSliceBySettings(
+                CacheLinks.ENDS_WITH, description, pageable, descriptionSearch::findSliceEndingWith
+            ));
+    }
+
+    @Override
+    public void warmUp(@NonNull final QueryHistory.RecentQuery recentQuery) {
+        final String expression = recentQuery.getExpression();
+        final Pageable pageable = recentQuery.getPageable();
+        switch (recentQuery.getFamily()) {
+            case CacheLinks.LISTING:
+                loadPageBySettings(
+                    CacheLinks.LISTING,
+                    "all",
+                    pageable,
+                    (__, ___) -> productRepository.findSliceOfAll(pageable),
+                    (__, ___) -> productRepository.findAll(pageable)
+                );
+                return;
+            case CacheLinks.CONTAINS:
+                if (!descriptionIndex.canAnswer(expression, pageable))
+                    loadPageBySettings(
+                        CacheLinks.CONTAINS, expression, pageable, descriptionSearch::findSliceContaining, descriptionSearch::findAllContaining
+                    );
+                return;
+            case CacheLinks.STARTS_WITH:
+                if (!descriptionIndex.canAnswer(expression, pageable))
+                    loadPageBySettings(
+                        CacheLinks.STARTS_WITH, expression, pageable, descriptionSearch::findSliceStartingWith, descriptionSearch::findAllStartingWith
+                    );
+                return;
+            case CacheLinks.ENDS_WITH:
+                if (!descriptionIndex.canAnswer(expression, pageable))
+                    loadPageBySettings(
+                        CacheLinks.ENDS_WITH, expression, pageable, descriptionSearch::findSliceEndingWith, descriptionSearch::findAllEndingWith
+                    );
+                return;
+            default:
+                throw new IllegalArgumentException("Unknown query family "+recentQuery.getFamily());
+        }
     }
 
-    private Page<Product> getAllBySettings(
+    private Page<Product> getPageBySettings(
+        final String family,
         final String expression,
         final Pageable pageable,
+        final BiFunction<String, Pageable, Slice<Product>> sliceBiFunction,
         final BiFunction<String, Pageable, Page<Product>> pageBiFunction
     ) {
         if (expression.isEmpty()) return new PageImpl<>(Collections.emptyList());
-        final String key = expression.equals("all") ?
-            String.format("pag=%s-%s", pageable.getPageNumber(), pageable.getPageSize()) :
-            String.format("%s-pag=%s-%s", expression, pageable.getPageNumber(), pageable.getPageSize());
-        final List<Product> listOfProducts = productCacheManager
-            .sync(key, () -> {
-                final Page<Product> productPage = pageBiFunction.apply(expression, pageable);
-                totalOfItems[0] = productPage.getTotalElements();
-                return productPage.getContent();
-            })
+        queryHistory.record(family, expression, pageable);
+        return loadPageBySettings(family, expression, pageable, sliceBiFunction, pageBiFunction);
+    }
+
+    private Page<Product> loadPageBySettings(
+        final String family,
+        final String expression,
+        final Pageable pageable,
+        final BiFunction<String, Pageable, Slice<Product>> sliceBiFunction,
+        final BiFunction<String, Pageable, Page<Product>> pageBiFunction
+    ) {
+        final String countLink = CacheLinks.of(family, expression);
+        final List<Product> listOfProducts = getContentBySettings(family, expression, pageable, () -> {
+            if (countCache.get(countLink).isPresent()) return sliceBiFunction.apply(expression, pageable).getContent();
+            final long invalidationStamp = countCache.stamp();
+            final Page<Product> productPage = pageBiFunction.apply(expression, pageable);
+            countCache.put(countLink, productPage.getTotalElements(), invalidationStamp);
+            return productPage.getContent();
+        });
+        final long totalOfItems = countCache.get(countLink).orElseGet(() -> {
+            final long invalidationStamp = countCache.stamp();
+            final long count = pageBiFunction.apply(expression, pageable).getTotalElements();
+            countCache.put(countLink, count, invalidationStamp);
+            return count;
+        });
+        return new PageImpl<>(listOfProducts, pageable, totalOfItems);
+    }
+
+    private Slice<Product> getSliceBySettings(
+        final String family,
+        final String expression,
+        final Pageable pageable,
+        final BiFunction<String, Pageable, Slice<Product>> sliceBiFunction
+    ) {
+        if (expression.isEmpty()) return new SliceImpl<>(Collections.emptyList());
+        queryHistory.record(family, expression, pageable);
+        final AtomicReference<Slice<Product>> fetchedSlice = new AtomicReference<>();
+        final List<Product> listOfProducts = getContentBySettings(family, expression, pageable, () -> {
+            fetchedSlice.set(sliceBiFunction.apply(expression, pageable));
+            return fetchedSlice.get().getContent();
+        });
+        final boolean hasNext = Objects.nonNull(fetchedSlice.get())
+            ? fetchedSlice.get().hasNext()
+            : countCache.get(CacheLinks.of(family, expression))
+                .map(totalOfItems -> pageable.getOffset() + listOfProducts.size() < totalOfItems)
+                .orElseGet(() -> listOfProducts.size() == pageable.getPageSize() && sliceBiFunction
+                    .apply(expression, PageRequest.of(Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), 1, pageable.getSort()))
+                    .hasContent()
+                );
+        return new SliceImpl<>(listOfProducts, pageable, hasNext);
+    }
+
+    private List<Product> getContentBySettings(
+        final String family,
+        final String expression,
+        final Pageable pageable,
+        final Supplier<List<Product>> contentSupplier
+    ) {
+        return productCacheManager
+            .sync(CacheLinks.ofPage(family, expression, pageable), contentSupplier)
             .orElse(Collections.emptyList());
-        return new PageImpl<>(listOfProducts, pageable, totalOfItems[0]);
     }
 }
\ No newline at end of file
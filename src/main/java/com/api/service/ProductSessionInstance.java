@@ -47,7 +47,7 @@ public class ProductSessionInstance {
 
     @Setter(AccessLevel.PRIVATE)
     @Getter
-    private SessionInstance sessionInstance;
+    private volatile SessionInstance sessionInstance;
 
     @PostConstruct
     void init() {
@@ -91,7 +91,8 @@ public class ProductSessionInstance {
         setSessionInstance(SessionInstance.EMPTY_SESSION);
     }
 
-    public void reloadSessionInstance() {
+    public synchronized void reloadSessionInstance(final SessionInstance expiredSessionInstance) {
+        if (sessionInstance != expiredSessionInstance) return;
         log.info("Reloading session instance");
         setSessionInstance(newSessionInstance());
     }
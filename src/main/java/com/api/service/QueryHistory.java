@@ -0,0 +1,60 @@
+package com.api.service;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Component
+public class QueryHistory {
+
+    private static final int MAXIMUM_QUERIES = 1_000;
+
+    private final ConcurrentMap<RecentQuery, AtomicLong> hitsByQuery = new ConcurrentHashMap<>();
+
+    public void record(@NonNull final String family, @NonNull final String expression, @NonNull final Pageable pageable) {
+        final RecentQuery recentQuery = new RecentQuery(family, expression, pageable);
+        final AtomicLong hits = hitsByQuery.get(recentQuery);
+        if (Objects.nonNull(hits)) {
+            hits.incrementAndGet();
+            return;
+        }
+        if (hitsByQuery.size() >= MAXIMUM_QUERIES) return;
+        hitsByQuery.computeIfAbsent(recentQuery, query -> new AtomicLong()).incrementAndGet();
+    }
+
+    public List<RecentQuery> mostFrequent(final int limit) {
+        return hitsByQuery.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<RecentQuery, AtomicLong> entry) -> entry.getValue().get()).reversed())
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    public void decay() {
+        hitsByQuery.forEach((query, hits) -> {
+            if (hits.updateAndGet(count -> count / 2) == 0) hitsByQuery.remove(query, hits);
+        });
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static final class RecentQuery {
+
+        private final String family;
+        private final String expression;
+        private final Pageable pageable;
+    }
+}
@@ -0,0 +1,90 @@
+package com.api.service;
+
+import com.api.utility.SearchKeys;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// It runs after any SQL init script has loaded its rows, yet ahead of cache warm-up and of readiness
+@Component
+@Log4j2
+public class SearchSchema {
+
+    static final String SEARCH_KEY_INDEX = "idx_products_search_key";
+    static final String TRIGRAM_INDEX = "idx_products_search_key_trgm";
+    private static final String FORMER_TRIGRAM_INDEX = "idx_products_description_trgm";
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DescriptionSearch.Mode mode;
+
+    @Autowired
+    public SearchSchema(
+        final JdbcTemplate jdbcTemplate,
+        @Value("${api.description-search.mode:like}") final DescriptionSearch.Mode mode
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = mode;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void create() {
+        backfillSearchKeys();
+        collateSearchKeysByCodePoint();
+        execute("CREATE INDEX IF NOT EXISTS "+SEARCH_KEY_INDEX+" ON products (search_key text_pattern_ops)");
+        if (mode != DescriptionSearch.Mode.TRIGRAM) return;
+
+        execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        execute("DROP INDEX IF EXISTS "+FORMER_TRIGRAM_INDEX);
+        execute("CREATE INDEX IF NOT EXISTS "+TRIGRAM_INDEX+" ON products USING gin (search_key gin_trgm_ops)");
+    }
+
+    private void backfillSearchKeys() {
+        final List<Object[]> searchKeysById = jdbcTemplate.query(
+            "SELECT id, description FROM products WHERE search_key IS NULL",
+            (resultSet, rowNumber) -> new Object[] {SearchKeys.of(resultSet.getString("description")), resultSet.getObject("id")}
+        );
+        if (searchKeysById.isEmpty()) return;
+
+        for (int from = 0; from < searchKeysById.size(); from += BACKFILL_BATCH_SIZE)
+            jdbcTemplate.batchUpdate(
+                "UPDATE products SET search_key = ? WHERE id = ?",
+                searchKeysById.subList(from, Math.min(from + BACKFILL_BATCH_SIZE, searchKeysById.size()))
+            );
+        log.info("Search keys filled in for "+searchKeysById.size()+" products");
+    }
+
+    // Schema updates never change the collation of an existing column, which the index's order depends on
+    private void collateSearchKeysByCodePoint() {
+        final List<String> collations = jdbcTemplate.queryForList(
+            "SELECT collation_name FROM information_schema.columns WHERE table_name = 'products' AND column_name = 'search_key'",
+            String.class
+        );
+        if (collations.isEmpty() || "C".equals(collations.get(0))) return;
+        try {
+            jdbcTemplate.execute("ALTER TABLE products ALTER COLUMN search_key TYPE VARCHAR(255) COLLATE \"C\"");
+        }
+        catch (DataAccessException ex) {
+            log.warn("Couldn't collate search keys by code point, database searches may order them apart from the index: "+ex.getMessage());
+        }
+    }
+
+    private void execute(final String statement) {
+        try {
+            jdbcTemplate.execute(statement);
+        }
+        catch (DataAccessException ex) {
+            log.warn("Couldn't run '"+statement+"', description searches will scan products: "+ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.api.service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * New links land in the probation segment and are promoted to the protected segment on their
+ * second hit, so one-off links produced by crawlers are evicted before the links users keep reading.
+ */
+final class SegmentedLruPolicy {
+
+    private final long maximumWeight;
+    private final long maximumProtectedWeight;
+    private final LinkedHashMap<String, Long> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Long> protectedSegment = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long probationWeight;
+    private long protectedWeight;
+
+    SegmentedLruPolicy(final long maximumWeight, final double protectedRatio) {
+        this.maximumWeight = maximumWeight;
+        this.maximumProtectedWeight = (long) (maximumWeight * protectedRatio);
+    }
+
+    boolean admits(final long weight) {
+        return weight <= maximumWeight;
+    }
+
+    List<String> recordWrite(final String link, final long weight) {
+        lock.lock();
+        try {
+            removeWithoutLocking(link);
+            probation.put(link, weight);
+            probationWeight += weight;
+            return collectVictims(link);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    void recordAccess(final String link) {
+        // Access order is best effort, a contended read must never wait for the policy
+        if (!lock.tryLock()) return;
+        try {
+            final Long probationEntryWeight = probation.remove(link);
+            if (Objects.nonNull(probationEntryWeight)) {
+                probationWeight -= probationEntryWeight;
+                protectedSegment.put(link, probationEntryWeight);
+                protectedWeight += probationEntryWeight;
+                demoteOverflowFromProtected();
+                return;
+            }
+            final Long protectedEntryWeight = protectedSegment.remove(link);
+            if (Objects.nonNull(protectedEntryWeight)) protectedSegment.put(link, protectedEntryWeight);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    void remove(final String link) {
+        lock.lock();
+        try {
+            removeWithoutLocking(link);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    long weightedSize() {
+        lock.lock();
+        try {
+            return probationWeight + protectedWeight;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeWithoutLocking(final String link) {
+        final Long probationEntryWeight = probation.remove(link);
+        if (Objects.nonNull(probationEntryWeight)) probationWeight -= probationEntryWeight;
+        final Long protectedEntryWeight = protectedSegment.remove(link);
+        if (Objects.nonNull(protectedEntryWeight)) protectedWeight -= protectedEntryWeight;
+    }
+
+    private void demoteOverflowFromProtected() {
+        while (protectedWeight > maximumProtectedWeight && !protectedSegment.isEmpty()) {
+            final Map.Entry<String, Long> eldest = protectedSegment.entrySet().iterator().next();
+            protectedSegment.remove(eldest.getKey());
+            protectedWeight -= eldest.getValue();
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationWeight += eldest.getValue();
+        }
+    }
+
+    private List<String> collectVictims(final String newestLink) {
+        final List<String> victims = new ArrayList<>();
+        while (probationWeight + protectedWeight > maximumWeight) {
+            final Map.Entry<String, Long> victim = findVictim(newestLink);
+            if (Objects.isNull(victim)) break;
+            removeWithoutLocking(victim.getKey());
+            victims.add(victim.getKey());
+        }
+        return victims;
+    }
+
+    private Map.Entry<String, Long> findVictim(final String newestLink) {
+        for (final Map.Entry<String, Long> entry : probation.entrySet())
+            if (!entry.getKey().equals(newestLink)) return entry;
+        final Iterator<Map.Entry<String, Long>> protectedIterator = protectedSegment.entrySet().iterator();
+        return protectedIterator.hasNext() ? protectedIterator.next() : null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.api.service;
+
+import com.api.projection.PriceChange;
+import com.api.projection.ProductChange;
+import com.api.projection.SyncCursor;
+import com.api.projection.SyncDelta;
+import com.api.repository.PriceRepository;
+import com.api.repository.ProductRepository;
+import com.api.service.interfaces.SyncService;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+public class SyncServiceImpl implements SyncService {
+
+    // Rows become visible on commit, a little after the instant they carry, so the newest ones wait for the next sync
+    private static final Duration SETTLE_WINDOW = Duration.ofSeconds(30);
+
+    private final ProductRepository productRepository;
+    private final PriceRepository priceRepository;
+    private final int pageSize;
+
+    @Autowired
+    public SyncServiceImpl(
+        final ProductRepository productRepository,
+        final PriceRepository priceRepository,
+        @Value("${api.sync.page-size:1000}") final int pageSize
+    ) {
+        this.productRepository = productRepository;
+        this.priceRepository = priceRepository;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public SyncDelta findChangesSince(@NonNull final Instant watermark) {
+        final Instant upTo = Instant.now().minus(SETTLE_WINDOW);
+        if (!watermark.isBefore(upTo))
+            return new SyncDelta(Collections.emptyList(), Collections.emptyList(), watermark, null);
+
+        return findChangesAfter(SyncCursor.startingAt(watermark, upTo));
+    }
+
+    @Override
+    public SyncDelta findChangesAfter(@NonNull final SyncCursor cursor) {
+        final Pageable page = PageRequest.ofSize(pageSize);
+        final List<ProductChange> productChanges = productRepository
+            .findAllUpdatedAfter(cursor.getProductInstant(), cursor.getProductId(), cursor.getUpTo(), page);
+        final List<PriceChange> priceChanges = priceRepository
+            .findAllAddedAfter(cursor.getPriceInstant(), cursor.getPriceId(), cursor.getUpTo(), page);
+        final boolean isCaughtUp = productChanges.size() < pageSize && priceChanges.size() < pageSize;
+
+        return SyncDelta.builder()
+            .products(productChanges.stream().map(ProductChange::getProduct).collect(Collectors.toList()))
+            .prices(priceChanges.stream().map(PriceChange::getPrice).collect(Collectors.toList()))
+            .watermark(isCaughtUp ? cursor.getUpTo() : null)
+            .cursor(isCaughtUp ? null : nextCursor(cursor, productChanges, priceChanges).toString())
+            .build();
+    }
+
+    private static SyncCursor nextCursor(
+        final SyncCursor cursor,
+        final List<ProductChange> productChanges,
+        final List<PriceChange> priceChanges
+    ) {
+        final boolean hasProductChanges = !productChanges.isEmpty();
+        final boolean hasPriceChanges = !priceChanges.isEmpty();
+        final ProductChange lastProductChange = hasProductChanges ? productChanges.get(productChanges.size() - 1) : null;
+        final PriceChange lastPriceChange = hasPriceChanges ? priceChanges.get(priceChanges.size() - 1) : null;
+        return new SyncCursor(
+            cursor.getUpTo(),
+            hasProductChanges ? lastProductChange.getUpdatedAt() : cursor.getProductInstant(),
+            hasProductChanges ? lastProductChange.getId() : cursor.getProductId(),
+            hasPriceChanges ? lastPriceChange.getPrice().getInstant() : cursor.getPriceInstant(),
+            hasPriceChanges ? lastPriceChange.getId() : cursor.getPriceId()
+        );
+    }
+}
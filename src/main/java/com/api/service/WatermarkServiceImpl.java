@@ -0,0 +1,37 @@
+package com.api.service;
+
+import com.api.repository.PriceRepository;
+import com.api.repository.ProductRepository;
+import com.api.service.interfaces.WatermarkService;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Transactional(readOnly = true)
+public class WatermarkServiceImpl implements WatermarkService {
+
+    private final ProductRepository productRepository;
+    private final PriceRepository priceRepository;
+
+    @Override
+    public Optional<Instant> findLatestProductUpdate() {
+        return productRepository.findLatestUpdate();
+    }
+
+    @Override
+    public Optional<Instant> findProductUpdateByBarcode(@NonNull final String barcode) {
+        return productRepository.findUpdatedAtByBarcode(barcode);
+    }
+
+    @Override
+    public Optional<Instant> findLatestPriceByProductBarcode(@NonNull final String barcode) {
+        return priceRepository.findLatestInstantByProductBarcode(barcode);
+    }
+}
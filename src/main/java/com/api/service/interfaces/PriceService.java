@@ -1,6 +1,6 @@
 package com.api.service.interfaces;
 
-import com.api.entity.Price;
+import com.api.projection.PriceWithInstant;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
@@ -9,9 +9,9 @@ import java.util.UUID;
 
 public interface PriceService {
 
-    Price findById(UUID id);
+    PriceWithInstant findById(UUID id);
 
-    List<Price> findByProductBarcode(String barcode, Sort sort);
+    List<PriceWithInstant> findByProductBarcode(String barcode, Sort sort);
 
-    List<Price> findByProductBarcode(String barcode, Pageable pageable);
-}
+    List<PriceWithInstant> findByProductBarcode(String barcode, Pageable pageable);
+}
\ No newline at end of file
@@ -1,13 +1,22 @@
 package com.api.service.interfaces;
 
 import com.api.entity.Product;
+import com.api.projection.ProductCursor;
 import com.api.projection.SimpleProductWithStatus;
+import com.api.service.ProductExporter;
+import com.api.service.QueryHistory;
 import lombok.NonNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface ProductService {
 
@@ -15,15 +24,37 @@ public interface ProductService {
 
     SimpleProductWithStatus getByBarcodeAndSaveIfNecessary(@NonNull final String barcode);
 
+    Map<String, SimpleProductWithStatus> getAllByBarcodeAndSaveIfNecessary(Collection<String> barcodes);
+
     List<Product> findAll(Sort sort);
 
     Page<Product> findAll(Pageable pageable);
 
+    Slice<Product> findSliceOfAll(Pageable pageable);
+
+    Slice<Product> findAllAfter(Optional<ProductCursor> after, int limit);
+
+    long count();
+
+    void warmUp(QueryHistory.RecentQuery recentQuery);
+
+    void exportAll(ProductExporter.Format format, boolean withLatestPrice, OutputStream outputStream) throws IOException;
+
     void save(Product product);
 
+    List<Product> suggest(String prefix, int limit);
+
+    List<Product> findAllByDescriptionSimilarTo(String description, int limit);
+
     Page<Product> findAllByDescriptionIgnoreCaseContaining(String description, Pageable pageable);
 
+    Slice<Product> findSliceByDescriptionIgnoreCaseContaining(String description, Pageable pageable);
+
     Page<Product> findAllByDescriptionIgnoreCaseStartingWith(String description, Pageable pageable);
 
+    Slice<Product> findSliceByDescriptionIgnoreCaseStartingWith(String description, Pageable pageable);
+
     Page<Product> findAllByDescriptionIgnoreCaseEndingWith(String description, Pageable pageable);
+
+    Slice<Product> findSliceByDescriptionIgnoreCaseEndingWith(String description, Pageable pageable);
 }
\ No newline at end of file
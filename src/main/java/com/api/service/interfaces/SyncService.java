@@ -0,0 +1,13 @@
+package com.api.service.interfaces;
+
+import com.api.projection.SyncCursor;
+import com.api.projection.SyncDelta;
+
+import java.time.Instant;
+
+public interface SyncService {
+
+    SyncDelta findChangesSince(Instant watermark);
+
+    SyncDelta findChangesAfter(SyncCursor cursor);
+}
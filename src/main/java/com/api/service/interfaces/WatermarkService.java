@@ -0,0 +1,13 @@
+package com.api.service.interfaces;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface WatermarkService {
+
+    Optional<Instant> findLatestProductUpdate();
+
+    Optional<Instant> findProductUpdateByBarcode(String barcode);
+
+    Optional<Instant> findLatestPriceByProductBarcode(String barcode);
+}
@@ -0,0 +1,73 @@
+package com.api.utility;
+
+import lombok.NonNull;
+import org.springframework.data.domain.Pageable;
+
+import java.util.function.Predicate;
+
+public final class CacheLinks {
+
+    public static final String BARCODE = "barcode";
+    public static final String LISTING = "listing";
+    public static final String LATEST_PRICE = "latest-price";
+    public static final String CONTAINS = "contains";
+    public static final String STARTS_WITH = "starts-with";
+    public static final String ENDS_WITH = "ends-with";
+    public static final String PRICE_BY_ID = "price-by-id";
+    public static final String PRICE_HISTORY = "price-history";
+    public static final String RESPONSE = "response";
+
+    private static final String SEPARATOR = ":";
+    private static final String PAGE_MARKER = "-pag=";
+
+    private CacheLinks() {}
+
+    public static String of(@NonNull final String family, @NonNull final String detail) {
+        return family+SEPARATOR+detail;
+    }
+
+    public static String ofPage(@NonNull final String family, @NonNull final String expression, @NonNull final Pageable pageable) {
+        return of(family, expression+PAGE_MARKER+pageable.getPageNumber()+"-"+pageable.getPageSize());
+    }
+
+    public static String familyOf(@NonNull final String link) {
+        final int separatorIndex = link.indexOf(SEPARATOR);
+        return separatorIndex < 0 ? link : link.substring(0, separatorIndex);
+    }
+
+    public static String expressionOf(@NonNull final String link) {
+        final int separatorIndex = link.indexOf(SEPARATOR);
+        final int pageMarkerIndex = link.lastIndexOf(PAGE_MARKER);
+        return link.substring(separatorIndex + 1, pageMarkerIndex < 0 ? link.length() : pageMarkerIndex);
+    }
+
+    public static Predicate<String> affectedBy(
+        @NonNull final String barcode,
+        @NonNull final String description,
+        final boolean isNewProduct
+    ) {
+        final String barcodeLink = of(BARCODE, barcode);
+        return link -> link.equals(barcodeLink) || isNewProduct && mayListDescription(link, description);
+    }
+
+    public static Predicate<String> priceHistoryOf(@NonNull final String barcode) {
+        return link -> familyOf(link).equals(PRICE_HISTORY) && expressionOf(link).startsWith(barcode);
+    }
+
+    public static boolean mayListDescription(@NonNull final String link, @NonNull final String description) {
+        final String family = familyOf(link);
+        switch (family) {
+            case LISTING:
+            case LATEST_PRICE:
+                return true;
+            case CONTAINS:
+                return SearchKeys.of(description).contains(SearchKeys.of(expressionOf(link)));
+            case STARTS_WITH:
+                return SearchKeys.of(description).startsWith(SearchKeys.of(expressionOf(link)));
+            case ENDS_WITH:
+                return SearchKeys.of(description).endsWith(SearchKeys.of(expressionOf(link)));
+            default:
+                return false;
+        }
+    }
+}
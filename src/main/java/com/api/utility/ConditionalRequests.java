@@ -0,0 +1,35 @@
+package com.api.utility;
+
+import lombok.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {}
+
+    public static boolean isNotModifiedSince(@NonNull final Optional<Instant> lastModified) {
+        if (lastModified.isEmpty()) return false;
+
+        final HttpServletRequest request =
+            ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        // If-None-Match takes precedence, so it's left for the ETag once the response is built
+        if (Objects.nonNull(request.getHeader(HttpHeaders.IF_NONE_MATCH))) return false;
+
+        final long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        }
+        catch (IllegalArgumentException ex) {
+            return false;
+        }
+        // HTTP dates carry whole seconds only
+        return ifModifiedSince >= 0 && ifModifiedSince >= lastModified.get().getEpochSecond() * 1000;
+    }
+}
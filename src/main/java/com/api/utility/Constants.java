@@ -1,8 +1,11 @@
 package com.api.utility;
 
+import java.time.LocalTime;
+
 public final class Constants {
 
     public static final String TIMEZONE = "America/Sao_Paulo";
+    public static final LocalTime DAILY_PRICE_UPDATE = LocalTime.of(5, 0);
     private final static String BASE_URL = "http://localhost/api/";
     public static final String PRICES_URL = BASE_URL+"prices?barcode=";
     public static final String PRODUCTS_URL = BASE_URL+"products";
@@ -2,9 +2,9 @@ package com.api.utility;
 
 import com.api.entity.Product;
 import lombok.NonNull;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
@@ -22,8 +22,8 @@ public final class DomainUtils {
         );
     }
 
-    public static String calculateNextPage(@NonNull final Page<Product> productPage) {
-        return (productPage.getNumber() + 1) + "-" + productPage.getSize();
+    public static String calculateNextPage(@NonNull final Slice<Product> productSlice) {
+        return (productSlice.getNumber() + 1) + "-" + productSlice.getSize();
     }
 
     public static BigDecimal parsePrice(final String priceInput) {
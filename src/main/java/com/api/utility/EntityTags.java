@@ -0,0 +1,75 @@
+package com.api.utility;
+
+import com.api.entity.Product;
+import com.api.projection.PriceWithInstant;
+import com.api.projection.SimpleProduct;
+import lombok.NonNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+public final class EntityTags {
+
+    private EntityTags() {}
+
+    public static String of(@NonNull final SimpleProduct simpleProduct) {
+        return digest(append(new StringBuilder(), simpleProduct));
+    }
+
+    public static String ofProducts(@NonNull final List<Product> products) {
+        return digest(appendAll(new StringBuilder(), products));
+    }
+
+    public static String ofPage(@NonNull final Page<Product> productPage) {
+        final StringBuilder stringBuilder = new StringBuilder()
+            .append(productPage.getNumber()).append('/')
+            .append(productPage.getSize()).append('/')
+            .append(productPage.getTotalElements()).append(';');
+        return digest(appendAll(stringBuilder, productPage.getContent()));
+    }
+
+    public static String ofSlice(@NonNull final Slice<Product> productSlice, final Long totalOfItems) {
+        final StringBuilder stringBuilder = new StringBuilder()
+            .append(productSlice.hasNext()).append('/')
+            .append(totalOfItems).append(';');
+        return digest(appendAll(stringBuilder, productSlice.getContent()));
+    }
+
+    public static String of(@NonNull final PriceWithInstant priceWithInstant) {
+        return digest(new StringBuilder()
+            .append(priceWithInstant.getValue().toPlainString()).append('@')
+            .append(priceWithInstant.getInstant().toEpochMilli())
+        );
+    }
+
+    public static String ofPrices(@NonNull final Collection<PriceWithInstant> prices) {
+        final long latestInstant = prices.stream()
+            .map(PriceWithInstant::getInstant)
+            .max(Comparator.naturalOrder())
+            .map(Instant::toEpochMilli)
+            .orElse(0L);
+        return digest(new StringBuilder().append(prices.size()).append('@').append(latestInstant));
+    }
+
+    private static StringBuilder appendAll(final StringBuilder stringBuilder, final List<Product> products) {
+        for (final Product product : products) append(stringBuilder, product.toSimpleProduct()).append(';');
+        return stringBuilder;
+    }
+
+    private static StringBuilder append(final StringBuilder stringBuilder, final SimpleProduct simpleProduct) {
+        return stringBuilder
+            .append(simpleProduct.getBarcode()).append('|')
+            .append(simpleProduct.getDescription()).append('|')
+            .append(simpleProduct.getSequenceCode());
+    }
+
+    private static String digest(final CharSequence value) {
+        return "\""+DigestUtils.md5DigestAsHex(value.toString().getBytes(StandardCharsets.UTF_8))+"\"";
+    }
+}
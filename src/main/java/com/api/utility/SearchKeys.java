@@ -0,0 +1,19 @@
+package com.api.utility;
+
+import lombok.NonNull;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class SearchKeys {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchKeys() {}
+
+    public static String of(@NonNull final String value) {
+        final String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,132 @@
+package com.api.component;
+
+import com.api.entity.Product;
+import com.api.projection.CachedResponse;
+import com.api.service.CacheManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCachingFilterTest {
+
+    private static final String BODY = "[" + "{\"description\":\"ACHOC PO NESCAU 800G\"},".repeat(40) + "{}]";
+    private static final String ETAG = "\"5d41402abc4b2a76b9719d911017c592\"";
+
+    private CacheManager<Product, UUID> productCacheManager;
+    private ResponseCachingFilter responseCachingFilterUnderTest;
+    private AtomicInteger renderings;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setup() {
+        productCacheManager = new CacheManager<>(Product::getId);
+        final CacheManager<CachedResponse, String> responseCacheManager = new CacheManager<>(CachedResponse::getLink);
+        responseCachingFilterUnderTest = new ResponseCachingFilter(productCacheManager, responseCacheManager);
+        renderings = new AtomicInteger();
+        filterChain = (request, response) -> {
+            renderings.incrementAndGet();
+            response.setContentType("application/json");
+            ((HttpServletResponse) response).setHeader(HttpHeaders.ETAG, ETAG);
+            response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    @Test
+    void when_the_same_request_is_repeated_then_should_write_the_rendered_bytes_without_rendering_again() throws Exception {
+        final MockHttpServletResponse firstResponse = perform(newRequest());
+        final MockHttpServletResponse secondResponse = perform(newRequest());
+
+        assertThat(renderings.get()).isEqualTo(1);
+        assertThat(firstResponse.getContentAsString()).isEqualTo(BODY);
+        assertThat(secondResponse.getContentAsString()).isEqualTo(BODY);
+        assertThat(secondResponse.getContentType()).isEqualTo("application/json");
+    }
+
+    @Test
+    void when_the_client_accepts_gzip_then_should_write_the_gzipped_variant() throws Exception {
+        perform(newRequest());
+        final MockHttpServletRequest gzipRequest = newRequest();
+        gzipRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        final MockHttpServletResponse actualResponse = perform(gzipRequest);
+
+        assertThat(actualResponse.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (final GZIPInputStream gzipInputStream =
+                 new GZIPInputStream(new ByteArrayInputStream(actualResponse.getContentAsByteArray()))) {
+            assertThat(new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void when_the_product_cache_is_invalidated_then_should_render_the_response_again() throws Exception {
+        perform(newRequest());
+        productCacheManager.invalidate(Collections.emptyList(), link -> true);
+        perform(newRequest());
+
+        assertThat(renderings.get()).isEqualTo(2);
+    }
+
+    @Test
+    void when_the_etag_of_the_cached_response_matches_then_should_answer_not_modified() throws Exception {
+        perform(newRequest());
+        final MockHttpServletRequest conditionalRequest = newRequest();
+        conditionalRequest.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+        final MockHttpServletResponse actualResponse = perform(conditionalRequest);
+
+        assertThat(actualResponse.getStatus()).isEqualTo(304);
+        assertThat(actualResponse.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(actualResponse.getContentAsByteArray()).isEmpty();
+        assertThat(renderings.get()).isEqualTo(1);
+    }
+
+    @Test
+    void when_the_etag_of_the_cached_response_does_not_match_then_should_write_the_body() throws Exception {
+        perform(newRequest());
+        final MockHttpServletRequest conditionalRequest = newRequest();
+        conditionalRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"bbd074a4e28b46dfb10a2fd55d11685b\"");
+
+        final MockHttpServletResponse actualResponse = perform(conditionalRequest);
+
+        assertThat(actualResponse.getStatus()).isEqualTo(200);
+        assertThat(actualResponse.getContentAsString()).isEqualTo(BODY);
+        assertThat(renderings.get()).isEqualTo(1);
+    }
+
+    @Test
+    void when_the_request_reached_the_api_through_another_host_then_should_render_the_response_again() throws Exception {
+        perform(newRequest());
+        final MockHttpServletRequest forwardedRequest = newRequest();
+        forwardedRequest.addHeader("X-Forwarded-Host", "api.example.com");
+
+        perform(forwardedRequest);
+        perform(forwardedRequest);
+
+        assertThat(renderings.get()).isEqualTo(2);
+    }
+
+    private MockHttpServletResponse perform(final MockHttpServletRequest request) throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        responseCachingFilterUnderTest.doFilter(request, response, filterChain);
+        return response;
+    }
+
+    private static MockHttpServletRequest newRequest() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setQueryString("pag=0-5");
+        return request;
+    }
+}
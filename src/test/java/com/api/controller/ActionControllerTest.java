@@ -1,16 +1,12 @@
 package com.api.controller;
 
-import com.api.entity.Product;
 import com.api.job.Job;
-import com.api.service.CacheManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
@@ -20,7 +16,6 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
-import java.util.UUID;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -90,13 +85,4 @@ public final class ActionControllerTest {
             .andExpect(content().contentType("text/plain;charset=UTF-8"))
             .andExpect(content().string(expectedContent));
     }
-
-    @TestConfiguration
-    static class TestConfig {
-
-        @Bean
-        public CacheManager<Product, UUID> productCacheManager() {
-            return new CacheManager<>(Product::getId);
-        }
-    }
 }
@@ -35,7 +35,7 @@ public class PriceControllerIT {
         makeRequestByUuid("5ad12c1a-2103-407c-adcc-832e3f99fb5b")
             .andExpect(status().isOk())
             .andExpect(header().string("Cache-Control", matchesRegex("^max-age=\\d{2,}$")))
-            .andExpect(header().doesNotExist("ETag"))
+            .andExpect(header().exists("ETag"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.value").value(18.40))
             .andExpect(jsonPath("$.instant").value("2021-09-09T16:50:10.554Z"));
@@ -58,7 +58,7 @@ public class PriceControllerIT {
         makeRequestWithBarcode("7897534852624")
             .andExpect(status().isOk())
             .andExpect(header().string("Cache-Control", matchesRegex("^max-age=\\d{2,}$")))
-            .andExpect(header().doesNotExist("ETag"))
+            .andExpect(header().exists("ETag"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$", hasSize(4)))
             .andExpect(jsonPath("$[*].value", contains(5.65, 9.90, 10.75, 7.50)));
@@ -88,7 +88,7 @@ public class PriceControllerIT {
         makeRequestWithBarcodeAndLimit("7897534852624", 3)
             .andExpect(status().isOk())
             .andExpect(header().string("Cache-Control", matchesRegex("^max-age=\\d{2,}$")))
-            .andExpect(header().doesNotExist("ETag"))
+            .andExpect(header().exists("ETag"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$", hasSize(3)))
             .andExpect(jsonPath("$[*].value", contains(5.65, 9.90, 10.75)));
@@ -1,18 +1,15 @@
 package com.api.controller;
 
-import com.api.entity.Price;
-import com.api.entity.Product;
-import com.api.service.CacheManager;
+import com.api.projection.PriceWithInstant;
 import com.api.service.interfaces.PriceService;
+import com.api.service.interfaces.WatermarkService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -24,6 +21,7 @@ import org.springframework.web.server.ResponseStatusException;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static com.api.controller.PriceControllerTestHelper.*;
@@ -41,30 +39,18 @@ public class PriceControllerTest {
     @MockBean
     private PriceService priceService;
 
+    @MockBean
+    private WatermarkService watermarkService;
+
     @Autowired
     private MockMvc mockMvc;
 
-    private final List<Price> usefulPrices = List.of(
-        new Price(
-            UUID.fromString("5b3e4ff1-99de-4d82-927e-3b26d868925c"),
-            new BigDecimal("34.5"), Instant.now(), null
-        ),
-        new Price(
-            UUID.fromString("e1960bf6-381b-458f-bb1f-2a41236337cd"),
-            new BigDecimal("4.52"), Instant.now(), null
-        ),
-        new Price(
-            UUID.fromString("b92b558b-b851-46cc-a2a3-b566e7e44966"),
-            new BigDecimal("16.75"), Instant.now(), null
-        ),
-        new Price(
-            UUID.fromString("6bba668b-eea7-46c7-99de-d80c965c847b"),
-            new BigDecimal("12.12"), Instant.now(), null
-        ),
-        new Price(
-            UUID.fromString("45578afd-75ad-4ba0-9aa6-f0391bca9d2a"),
-            new BigDecimal("6.39"), Instant.now(), null
-        )
+    private final List<PriceWithInstant> usefulPrices = List.of(
+        new PriceWithInstant(new BigDecimal("34.5"), Instant.now()),
+        new PriceWithInstant(new BigDecimal("4.52"), Instant.now()),
+        new PriceWithInstant(new BigDecimal("16.75"), Instant.now()),
+        new PriceWithInstant(new BigDecimal("12.12"), Instant.now()),
+        new PriceWithInstant(new BigDecimal("6.39"), Instant.now())
     );
 
     @BeforeEach
@@ -82,7 +68,7 @@ public class PriceControllerTest {
         makeRequestByUuid(uuid+"")
             .andExpect(status().isOk())
             .andExpect(header().string("Cache-Control", matchesRegex("^max-age=\\d{2,}$")))
-            .andExpect(header().doesNotExist("ETag"))
+            .andExpect(header().exists("ETag"))
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.value").value("16.75"));
 
@@ -90,6 +76,72 @@ public class PriceControllerTest {
         verify(priceService, only()).findById(eq(uuid));
     }
 
+    @Test
+    @DisplayName("When if-none-match header matches then GET /api/prices?barcode=7896656800018 - 304 NOT MODIFIED")
+    void when_the_price_history_did_not_change_then_should_return_nothing_with_NOT_MODIFIED() throws Exception {
+        final String targetBarcode = "7896656800018";
+        final Sort orderByInstantDesc = Sort.by("instant").descending();
+
+        given(priceService.findByProductBarcode(eq(targetBarcode), eq(orderByInstantDesc)))
+            .willReturn(usefulPrices);
+
+        final String eTag = makeRequestWithBarcode(targetBarcode)
+            .andExpect(header().exists("ETag"))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        makeRequestWithBarcodeAndIfNoneMatch(targetBarcode, eTag)
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", eTag))
+            .andExpect(content().string(emptyString()));
+
+        given(priceService.findByProductBarcode(eq(targetBarcode), eq(orderByInstantDesc)))
+            .willReturn(usefulPrices.subList(1, usefulPrices.size()));
+
+        makeRequestWithBarcodeAndIfNoneMatch(targetBarcode, eTag)
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", not(equalTo(eTag))))
+            .andExpect(jsonPath("$", hasSize(4)));
+    }
+
+    @Test
+    @DisplayName("When no price was added since if-modified-since then GET /api/prices?barcode=7896656800018 - 304 NOT MODIFIED")
+    void when_no_price_was_added_since_then_should_return_nothing_with_NOT_MODIFIED_before_loading_prices() throws Exception {
+        final String targetBarcode = "7896656800018";
+
+        given(watermarkService.findLatestPriceByProductBarcode(eq(targetBarcode)))
+            .willReturn(Optional.of(Instant.parse("2022-06-10T08:00:00.123Z")));
+
+        makeRequestWithBarcodeAndIfModifiedSince(targetBarcode, "Fri, 10 Jun 2022 08:00:00 GMT")
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("Last-Modified", "Fri, 10 Jun 2022 08:00:00 GMT"))
+            .andExpect(header().string("Cache-Control", matchesRegex("^max-age=\\d{2,}$")))
+            .andExpect(content().string(emptyString()));
+
+        verify(watermarkService, only()).findLatestPriceByProductBarcode(eq(targetBarcode));
+        verifyNoInteractions(priceService);
+    }
+
+    @Test
+    @DisplayName("When the price history served is behind the database then Last-Modified should come from what is served")
+    void when_the_served_price_history_is_behind_the_database_then_last_modified_should_come_from_it() throws Exception {
+        final String targetBarcode = "7896656800018";
+        final Sort orderByInstantDesc = Sort.by("instant").descending();
+
+        given(watermarkService.findLatestPriceByProductBarcode(eq(targetBarcode)))
+            .willReturn(Optional.of(Instant.parse("2022-06-11T08:00:00Z")));
+        given(priceService.findByProductBarcode(eq(targetBarcode), eq(orderByInstantDesc)))
+            .willReturn(List.of(
+                new PriceWithInstant(new BigDecimal("5.49"), Instant.parse("2022-06-10T08:00:00Z")),
+                new PriceWithInstant(new BigDecimal("5.29"), Instant.parse("2022-06-09T08:00:00Z"))
+            ));
+
+        makeRequestWithBarcode(targetBarcode)
+            .andExpect(status().isOk())
+            .andExpect(header().string("Last-Modified", "Fri, 10 Jun 2022 08:00:00 GMT"));
+    }
+
     @Test
     @DisplayName("GET /api/prices/b92b558b-b851-46cc-a2a3-b566e7e37d34 - 404 NOT FOUND")
     void when_a_price_is_not_found_then_should_return_a_error_message() throws Exception {
@@ -135,7 +187,7 @@ public class PriceControllerTest {
     void should_return_three_prices_for_a_barcode() throws Exception {
         final String targetBarcode = "7896656800018";
         final Pageable pageWith3ItemsOrderedByInstantDesc = PageRequest.ofSize(3).withSort(Sort.by("instant").descending());
-        final List<Price> pricesToBeVerified = usefulPrices.subList(0, 3);
+        final List<PriceWithInstant> pricesToBeVerified = usefulPrices.subList(0, 3);
         
         given(priceService.findByProductBarcode(eq(targetBarcode), eq(pageWith3ItemsOrderedByInstantDesc)))
             .willReturn(pricesToBeVerified);
@@ -171,13 +223,4 @@ public class PriceControllerTest {
         verify(priceService, times(1)).findByProductBarcode(eq(targetBarcode), eq(orderByInstantDesc));
         verify(priceService, only()).findByProductBarcode(eq(targetBarcode), eq(orderByInstantDesc));
     }
-
-    @TestConfiguration
-    static class TestConfig {
-
-        @Bean
-        public CacheManager<Product, UUID> productCacheManager() {
-            return new CacheManager<>(Product::getId);
-        }
-    }
 }
\ No newline at end of file
@@ -26,6 +26,24 @@ final class PriceControllerTestHelper {
         );
     }
 
+    static ResultActions makeRequestWithBarcodeAndIfNoneMatch(final String barcode, final String eTag) throws Exception {
+        return mockMvc.perform(
+            get("/api/prices").param("barcode", barcode).param("limit", "0")
+                .header("If-None-Match", eTag)
+                .characterEncoding(StandardCharsets.UTF_8)
+                .accept(MediaType.ALL)
+        );
+    }
+
+    static ResultActions makeRequestWithBarcodeAndIfModifiedSince(final String barcode, final String date) throws Exception {
+        return mockMvc.perform(
+            get("/api/prices").param("barcode", barcode).param("limit", "0")
+                .header("If-Modified-Since", date)
+                .characterEncoding(StandardCharsets.UTF_8)
+                .accept(MediaType.ALL)
+        );
+    }
+
     static ResultActions makeRequestByUuid(final String uuid) throws Exception {
         return mockMvc.perform(
             get("/api/prices/"+uuid)
@@ -1,7 +1,5 @@
 package com.api.controller;
 
-import com.api.entity.Product;
-import com.api.service.CacheManager;
 import com.api.utility.Constants;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,8 +10,6 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
-import java.util.UUID;
-
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static com.api.controller.ProductControllerTestHelper.*;
 import static org.hamcrest.Matchers.*;
@@ -643,11 +639,8 @@ public class ProductControllerIT {
     }
 
     @Test
-    @DisplayName("All URIs should respond with 304 not_modified if If-None-Match header matches")
-    void when_If_None_Match_header_matches_then_should_respond_with_304_not_modified(
-        @Autowired CacheManager<Product, UUID> productCacheManager
-    ) throws Exception {
-        final String etagId = productCacheManager.getRef().toString().replace("-", "");
+    @DisplayName("All URIs should respond with 304 not_modified if If-None-Match header matches their own ETag")
+    void when_If_None_Match_header_matches_then_should_respond_with_304_not_modified() throws Exception {
         final String[] uris = {
             "/api/products",
             "/api/products?pag=0-5",
@@ -656,7 +649,6 @@ public class ProductControllerIT {
             "/api/products?pag=3-5",
             "/api/products?pag=4-5",
             "/api/products/7891000055120",
-            "/api/products/7891000055129",
             "/api/products?pag=0-1&contains=400g",
             "/api/products?pag=1-2&contains=400g",
             "/api/products?pag=3-2&contains=400g",
@@ -667,33 +659,26 @@ public class ProductControllerIT {
             "/api/products?pag=2-5&starts-with=torr",
             "/api/products?pag=0-2&ends-with=laranja",
             "/api/products?pag=5-2&ends-with=laranja",
-            "/api/products?pag=1-3&ends-with=mango",
-            "/api/products/18908",
-            "/api/products/1927384019283145",
-            "/api/products/7alfpm439ayra",
-            "/api/products/17802a",
-            "/api/products?pag=0--2",
-            "/api/products?pag=0-6&contains=all",
-            "/api/produdcts?pag=0-6&contains=bi",
-            "/api/products?pag=0-6&contains=black and white triangle",
-            "/api/products?pag=0-6&contains=qi",
-            "/api/products?pag=0-6&starts-with=po",
-            "/api/products?pag=0-6&starts-with=some words for some tests",
-            "/api/products?pag=0-6&starts-with=all",
-            "/api/products?pag=0--6&starts_with=qi",
-            "/api/products?pag=0-6&ends-with=all",
-            "/api/products?pag=0-6&ends-with=ti",
-            "/api/products?pag=0-6&ends-with=this must be over 16",
-            "/api/products?pag=0--6&ends-with=qi"
+            "/api/products?pag=1-3&ends-with=mango"
         };
 
-        for (String uri : uris) {
-            mockMvc.perform(
-                get(uri).header("If-None-Match", etagId)
-            )
-            .andExpect(status().isNotModified())
-            .andExpect(header().string("ETag", etagId))
-            .andExpect(content().string(emptyString()));
-        }
+        for (String uri : uris) testUriWithIfNoneMatch(uri);
+    }
+
+    @Test
+    @DisplayName("A resource should not respond with 304 not_modified to the ETag of another one")
+    void when_If_None_Match_header_belongs_to_another_resource_then_should_respond_with_200_ok() throws Exception {
+        final String eTagOfTheFirstPage = mockMvc.perform(get("/api/products?pag=0-5"))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        mockMvc.perform(get("/api/products?pag=1-5").header("If-None-Match", eTagOfTheFirstPage))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", not(equalTo(eTagOfTheFirstPage))));
+
+        mockMvc.perform(get("/api/products?pag=0--2").header("If-None-Match", eTagOfTheFirstPage))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().doesNotExist("ETag"));
     }
 }
@@ -1,11 +1,12 @@
 package com.api.controller;
 
 import com.api.Resources;
-import com.api.component.CachingInterceptor;
-import com.api.entity.Product;
+import com.api.projection.ProductCursor;
+import com.api.projection.SimpleProduct;
 import com.api.projection.SimpleProductWithStatus;
-import com.api.service.CacheManager;
+import com.api.service.ProductExporter;
 import com.api.service.interfaces.ProductService;
+import com.api.service.interfaces.WatermarkService;
 import com.api.utility.Constants;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,14 +15,23 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Collections;
-import java.util.UUID;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static com.api.controller.ProductControllerTestHelper.*;
 import static org.hamcrest.Matchers.contains;
@@ -29,6 +39,9 @@ import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
@@ -40,17 +53,14 @@ class ProductControllerTest {
     private ProductService productService;
 
     @MockBean
-    private CacheManager<Product, UUID> productCacheManager;
+    private WatermarkService watermarkService;
 
     @BeforeEach
     void setUp() {
-        given(productCacheManager.getRef()).willReturn(UUID.fromString("bbd074a4-e28b-46df-b10a-2fd55d11685b"));
-
         ProductControllerTestHelper.mockMvc = standaloneSetup(
-            new ProductController(productService, productCacheManager),
+            new ProductController(productService, watermarkService),
             new GlobalErrorHandlingController()
         )
-        .addInterceptors(new CachingInterceptor(productCacheManager))
         .alwaysDo(print()).build();
     }
 
@@ -72,7 +82,7 @@ class ProductControllerTest {
             };
             makeRequest()
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
@@ -99,7 +109,39 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products -> 304 NOT MODIFIED")
         void should_return_all_products_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products");
+            given(productService.findAll(ArgumentMatchers.any(Sort.class))).willReturn(Resources.PRODUCTS_SAMPLE);
+
+            testUriWithIfNoneMatch("/api/products");
+        }
+
+        @Test
+        @DisplayName("When nothing changed since if-modified-since then GET /api/products?pag=0-5 -> 304 NOT MODIFIED")
+        void when_no_product_changed_since_then_should_return_nothing_with_NOT_MODIFIED_before_querying() throws Exception {
+            given(watermarkService.findLatestProductUpdate())
+                .willReturn(Optional.of(Instant.parse("2022-06-10T08:00:00.123Z")));
+
+            mockMvc.perform(get("/api/products?pag=0-5").header("If-Modified-Since", "Fri, 10 Jun 2022 08:00:00 GMT"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Last-Modified", equalTo("Fri, 10 Jun 2022 08:00:00 GMT")))
+                .andExpect(content().string(emptyString()));
+
+            verifyNoInteractions(productService);
+        }
+
+        @Test
+        @DisplayName("When a product changed since if-modified-since then GET /api/products?pag=0-5 -> 200 OK")
+        void when_a_product_changed_since_then_should_return_the_page__OK() throws Exception {
+            final Pageable firstPageWithFiveProducts = createPageable("0-5", getDefaultSorting());
+            given(productService.findAll(eq(firstPageWithFiveProducts))).willReturn(createPage(firstPageWithFiveProducts));
+            given(watermarkService.findLatestProductUpdate())
+                .willReturn(Optional.of(Instant.parse("2022-06-10T08:00:01Z")));
+
+            mockMvc.perform(get("/api/products?pag=0-5").header("If-Modified-Since", "Fri, 10 Jun 2022 08:00:00 GMT"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Last-Modified", equalTo("Fri, 10 Jun 2022 08:00:01 GMT")))
+                .andExpect(jsonPath("$.currentCountOfItems").value(5));
+
+            verify(productService, only()).findAll(eq(firstPageWithFiveProducts));
         }
 
         @Test
@@ -118,7 +160,7 @@ class ProductControllerTest {
             };
             makeRequestWithPage("0-5")
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.currentCountOfItems").value(5))
@@ -137,7 +179,10 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=0-5 -> 304 NOT MODIFIED")
         void should_return_the_first_page_with_five_products_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=0-5");
+            final Pageable firstPageWithFiveProducts = createPageable("0-5", getDefaultSorting());
+            given(productService.findAll(eq(firstPageWithFiveProducts))).willReturn(createPage(firstPageWithFiveProducts));
+
+            testUriWithIfNoneMatch("/api/products?pag=0-5");
         }
 
         @Test
@@ -157,7 +202,7 @@ class ProductControllerTest {
 
             makeRequestWithPage("1-5")
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.currentPage").value(1))
@@ -176,7 +221,10 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=1-5 -> 304 NOT MODIFIED")
         void should_return_the_second_page_with_five_products_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=1-5");
+            final Pageable secondPageWithFiveProducts = createPageable("1-5", getDefaultSorting());
+            given(productService.findAll(eq(secondPageWithFiveProducts))).willReturn(createPage(secondPageWithFiveProducts));
+
+            testUriWithIfNoneMatch("/api/products?pag=1-5");
         }
 
         @Test
@@ -196,7 +244,7 @@ class ProductControllerTest {
 
             makeRequestWithPage("2-5")
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.currentCountOfItems").value(5))
@@ -215,7 +263,10 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=2-5 -> 304 NOT MODIFIED")
         void should_return_the_third_page_with_five_products_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=2-5");
+            final Pageable thirdPageWithFiveProducts = createPageable("2-5", getDefaultSorting());
+            given(productService.findAll(eq(thirdPageWithFiveProducts))).willReturn(createPage(thirdPageWithFiveProducts));
+
+            testUriWithIfNoneMatch("/api/products?pag=2-5");
         }
 
         @Test
@@ -231,7 +282,7 @@ class ProductControllerTest {
 
             makeRequestWithPage("3-5")
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.currentCountOfItems").value(3))
@@ -247,7 +298,10 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=3-5 -> 304 NOT MODIFIED")
         void should_return_the_fourth_page_with_three_products_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=3-5");
+            final Pageable fourthPageWithThreeProducts = createPageable("3-5", getDefaultSorting());
+            given(productService.findAll(eq(fourthPageWithThreeProducts))).willReturn(createPage(fourthPageWithThreeProducts));
+
+            testUriWithIfNoneMatch("/api/products?pag=3-5");
         }
 
         @Test
@@ -261,7 +315,7 @@ class ProductControllerTest {
 
             makeRequestWithPage("3-5")
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
@@ -274,7 +328,9 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=4-5 -> 304 NOT MODIFIED")
         void when_pag_is_over_the_limits_then_should_return_an_empty_array_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=4-5");
+            given(productService.findAll(eq(createPageable("4-5", getDefaultSorting())))).willReturn(emptyPage());
+
+            testUriWithIfNoneMatch("/api/products?pag=4-5");
         }
 
         @Test
@@ -284,7 +340,7 @@ class ProductControllerTest {
 
             makeRequest()
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
@@ -294,6 +350,153 @@ class ProductControllerTest {
         }
     }
 
+    @Nested
+    class GetAllAfterTest {
+
+        private final String FIFTH_PRODUCT_CURSOR = "BISC WAFER TODDY 132G CHOC,378be7fc-4a82-4730-9535-05a842bd2fd2";
+
+        @Test
+        @DisplayName("GET /api/products?limit=5 -> 200 OK")
+        void when_no_cursor_is_given_then_should_return_the_first_slice_without_counting__OK() throws Exception {
+            given(productService.findAllAfter(eq(Optional.empty()), eq(5)))
+                .willReturn(new SliceImpl<>(Resources.PRODUCTS_SAMPLE.subList(0, 5), PageRequest.ofSize(5), true));
+
+            mockMvc.perform(get("/api/products").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
+                .andExpect(jsonPath("$.currentCountOfItems").value(5))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.currentPage").doesNotExist())
+                .andExpect(jsonPath("$.totalOfPages").doesNotExist())
+                .andExpect(jsonPath("$.totalOfItems").doesNotExist())
+                .andExpect(jsonPath("$.links[0].rel").value("Next page"))
+                .andExpect(jsonPath("$.links[0].href", startsWith(Constants.PRODUCTS_URL+"?after=BISC")))
+                .andExpect(jsonPath("$.links[0].href", endsWith("378be7fc-4a82-4730-9535-05a842bd2fd2&limit=5&totals=false")));
+
+            verify(productService, never()).count();
+        }
+
+        @Test
+        @DisplayName("GET /api/products?after=BISC WAFER TODDY 132G CHOC,378be7fc-...&limit=5&totals=true -> 200 OK")
+        void when_a_cursor_and_totals_are_given_then_should_seek_past_it_and_count__OK() throws Exception {
+            given(productService.findAllAfter(eq(Optional.of(ProductCursor.parse(FIFTH_PRODUCT_CURSOR))), eq(5)))
+                .willReturn(new SliceImpl<>(Resources.PRODUCTS_SAMPLE.subList(5, 10), PageRequest.ofSize(5), true));
+            given(productService.count()).willReturn(18L);
+
+            mockMvc.perform(get("/api/products")
+                    .param("after", FIFTH_PRODUCT_CURSOR)
+                    .param("limit", "5")
+                    .param("totals", "true")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].barcode").value("7896085087028"))
+                .andExpect(jsonPath("$.currentCountOfItems").value(5))
+                .andExpect(jsonPath("$.totalOfItems").value(18))
+                .andExpect(jsonPath("$.currentPage").doesNotExist())
+                .andExpect(jsonPath("$.links[0].href", endsWith("&limit=5&totals=true")));
+
+            verify(productService, times(1)).count();
+        }
+    }
+
+    @Nested
+    class SuggestTest {
+
+        @Test
+        @DisplayName("GET /api/products/suggest?q=bisc&limit=2 -> 200 OK")
+        void should_return_the_suggestions_without_checking_any_watermark__OK() throws Exception {
+            given(productService.suggest(eq("bisc"), eq(2))).willReturn(Resources.PRODUCTS_SAMPLE.subList(3, 5));
+
+            mockMvc.perform(get("/api/products/suggest").param("q", "bisc").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", equalTo("max-age=60")))
+                .andExpect(jsonPath("$[*].description", contains("BISC ROSQ MARILAN 350G INT", "BISC WAFER TODDY 132G CHOC")))
+                .andExpect(jsonPath("$[*].barcode", contains("7896003737257", "7896071024709")));
+
+            verify(productService, only()).suggest(eq("bisc"), eq(2));
+            verifyNoInteractions(watermarkService);
+        }
+    }
+
+    @Nested
+    class GetAllSimilarToDescriptionTest {
+
+        @Test
+        @DisplayName("GET /api/products/similar?q=oleo milio -> 200 OK")
+        void should_return_the_products_in_the_order_they_were_ranked__OK() throws Exception {
+            given(productService.findAllByDescriptionSimilarTo(eq("oleo milio"), eq(10)))
+                .willReturn(List.of(Resources.PRODUCTS_SAMPLE.get(12), Resources.PRODUCTS_SAMPLE.get(11)));
+
+            mockMvc.perform(get("/api/products/similar").param("q", "oleo milio"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", equalTo("max-age=60")))
+                .andExpect(jsonPath("$[*].description", contains("OLEO MILHO LIZA 900ML", "MILHO VDE PREDILECTA 170G LT")));
+
+            verify(productService, only()).findAllByDescriptionSimilarTo(eq("oleo milio"), eq(10));
+            verifyNoInteractions(watermarkService);
+        }
+    }
+
+    @Nested
+    class ExportTest {
+
+        @Test
+        @DisplayName("GET /api/products/export?format=csv&latest-price=true -> 200 OK")
+        void should_stream_what_the_service_writes_as_an_attachment__OK() throws Exception {
+            final String csv = "description,sequenceCode,barcode,latestPrice,latestPriceInstant\n"+
+                "ACHOC PO NESCAU 800G,29250,7891000055120,16.98,2022-11-28T15:00:00Z\n";
+            doAnswer(invocation -> {
+                invocation.getArgument(2, OutputStream.class).write(csv.getBytes(StandardCharsets.UTF_8));
+                return null;
+            }).when(productService).exportAll(eq(ProductExporter.Format.CSV), eq(true), any(OutputStream.class));
+
+            final MvcResult mvcResult = mockMvc.perform(get("/api/products/export")
+                    .param("format", "csv")
+                    .param("latest-price", "true")
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", startsWith("text/csv")))
+                .andExpect(header().string("Content-Disposition", equalTo("attachment; filename=\"products.csv\"")))
+                .andExpect(content().string(csv));
+
+            verify(productService, only()).exportAll(eq(ProductExporter.Format.CSV), eq(true), any(OutputStream.class));
+            verifyNoInteractions(watermarkService);
+        }
+    }
+
+    @Nested
+    class GetAllByBarcodeTest {
+
+        @Test
+        @DisplayName("POST /api/products/batch -> 200 OK")
+        void should_return_the_status_of_every_barcode_in_the_order_they_were_sent__OK() throws Exception {
+            final Map<String, SimpleProductWithStatus> lookups = new LinkedHashMap<>();
+            lookups.put("7896336010058", Resources.PRODUCTS_SAMPLE.get(1).toSimpleProductWithStatus(HttpStatus.CREATED));
+            lookups.put("7891000055345", new SimpleProductWithStatus(null, HttpStatus.NOT_FOUND));
+            lookups.put("7891000055120", Resources.PRODUCTS_SAMPLE.get(0).toSimpleProductWithStatus(HttpStatus.OK));
+            given(productService.getAllByBarcodeAndSaveIfNecessary(eq(List.of("7896336010058", "7891000055345", "7891000055120"))))
+                .willReturn(lookups);
+
+            mockMvc.perform(post("/api/products/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[\"7896336010058\", \"7891000055345\", \"7891000055120\"]")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].barcode", contains("7896336010058", "7891000055345", "7891000055120")))
+                .andExpect(jsonPath("$[*].status", contains(201, 404, 200)))
+                .andExpect(jsonPath("$[0].product.description").value("AMENDOIM SALG CROKISSIMO 400G PIMENTA"))
+                .andExpect(jsonPath("$[1].product").doesNotExist());
+
+            verify(productService, only())
+                .getAllByBarcodeAndSaveIfNecessary(eq(List.of("7896336010058", "7891000055345", "7891000055120")));
+            verifyNoInteractions(watermarkService);
+        }
+    }
+
     @Nested
     class GetByBarcodeTest {
 
@@ -329,7 +532,7 @@ class ProductControllerTest {
 
             makeRequestByBarcode(targetBarcode)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.description").value("ACHOC PO NESCAU 800G"))
@@ -346,7 +549,29 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products/7891000055120 -> 304 NOT MODIFIED")
         void when_the_product_is_found_should_return_a_product_but_must_return_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products/7891000055120");
+            given(productService.getByBarcodeAndSaveIfNecessary(eq("7891000055120")))
+                .willReturn(Resources.PRODUCTS_SAMPLE.get(0).toSimpleProductWithStatus(HttpStatus.OK));
+
+            testUriWithIfNoneMatch("/api/products/7891000055120");
+        }
+
+        @Test
+        @DisplayName("When the product changes then GET /api/products/7891000055120 with the stale ETag -> 200 OK")
+        void when_the_product_changes_then_its_stale_etag_should_no_longer_match__OK() throws Exception {
+            final String targetBarcode = "7891000055120";
+            given(productService.getByBarcodeAndSaveIfNecessary(eq(targetBarcode)))
+                .willReturn(Resources.PRODUCTS_SAMPLE.get(0).toSimpleProductWithStatus(HttpStatus.OK));
+            final String staleEtag = makeRequestByBarcode(targetBarcode).andReturn().getResponse().getHeader("ETag");
+
+            given(productService.getByBarcodeAndSaveIfNecessary(eq(targetBarcode)))
+                .willReturn(new SimpleProductWithStatus(
+                    new SimpleProduct("ACHOC PO NESCAU 1KG", 29250, targetBarcode), HttpStatus.OK
+                ));
+
+            mockMvc.perform(get("/api/products/"+targetBarcode).header("If-None-Match", staleEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(equalTo(staleEtag))))
+                .andExpect(jsonPath("$.description").value("ACHOC PO NESCAU 1KG"));
         }
     }
 
@@ -367,7 +592,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndContains("0-2", contains)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.currentCountOfItems").value(2))
@@ -388,10 +613,36 @@ class ProductControllerTest {
             verify(productService, only()).findAllByDescriptionIgnoreCaseContaining(eq(contains), eq(firstPageWithTwoProducts));
         }
 
+        @Test
+        @DisplayName("GET /api/products?pag=0-2&contains=500g&totals=false -> 200 OK")
+        void when_totals_are_turned_off_then_should_leave_them_out_and_keep_them_off_in_the_next_link__OK() throws Exception {
+            final Pageable firstPageWithTwoProducts = createPageable("0-2", getDefaultSorting());
+            final String contains = "500g";
+
+            given(productService.findSliceByDescriptionIgnoreCaseContaining(eq(contains), eq(firstPageWithTwoProducts)))
+                .willReturn(new SliceImpl<>(filterByContaining(contains).subList(0, 2), firstPageWithTwoProducts, true));
+
+            mockMvc.perform(get("/api/products?pag=0-2&contains=500g&totals=false"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
+                .andExpect(jsonPath("$.currentCountOfItems").value(2))
+                .andExpect(jsonPath("$.currentPage").value(0))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalOfPages").doesNotExist())
+                .andExpect(jsonPath("$.totalOfItems").doesNotExist())
+                .andExpect(jsonPath("$.links[0].href").value(Constants.PRODUCTS_URL+"?pag=1-2&contains=500g&totals=false"));
+
+            verify(productService, only()).findSliceByDescriptionIgnoreCaseContaining(eq(contains), eq(firstPageWithTwoProducts));
+        }
+
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=0-2&contains=500g -> 304 NOT MODIFIED")
         void should_return_the_first_page_with_two_products_that_contain_500g_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=0-2&contains=500g");
+            final Pageable firstPageWithTwoProducts = createPageable("0-2", getDefaultSorting());
+            given(productService.findAllByDescriptionIgnoreCaseContaining(eq("500g"), eq(firstPageWithTwoProducts)))
+                .willReturn(createPage(firstPageWithTwoProducts, filterByContaining("500g")));
+
+            testUriWithIfNoneMatch("/api/products?pag=0-2&contains=500g");
         }
 
         @Test
@@ -406,7 +657,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndContains("1-1", contains)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
@@ -419,7 +670,9 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag-1-1&contains= -> 304 NOT_MODIFIED")
         void when_contains_is_empty_then_should_return_an_empty_json_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag-1-1&contains= ");
+            given(productService.findAll(ArgumentMatchers.any(Sort.class))).willReturn(Collections.emptyList());
+
+            testUriWithIfNoneMatch("/api/products?pag-1-1&contains= ");
         }
 
         @Test
@@ -434,7 +687,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndContains("1-1", contains)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
@@ -447,7 +700,9 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag-1-1&contains= -> 304 NOT_MODIFIED")
         void when_contains_does_not_match_anything_then_should_return_an_empty_json_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag-1-1&contains=");
+            given(productService.findAll(ArgumentMatchers.any(Sort.class))).willReturn(Collections.emptyList());
+
+            testUriWithIfNoneMatch("/api/products?pag-1-1&contains=");
         }
     }
 
@@ -468,7 +723,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndStartsWith("0-2", startsWith)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.currentCountOfItems").value(2))
@@ -490,7 +745,11 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=0-2&starts-with=bisc -> 304 NOT MODIFIED")
         void should_return_the_first_page_with_two_products_that_start_with_bisc_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=0-2&starts-with=bisc");
+            final Pageable firstPageWithTwoProducts = createPageable("0-2", getDefaultSorting());
+            given(productService.findAllByDescriptionIgnoreCaseStartingWith(eq("bisc"), eq(firstPageWithTwoProducts)))
+                .willReturn(createPage(firstPageWithTwoProducts, filterByStartingWith("bisc")));
+
+            testUriWithIfNoneMatch("/api/products?pag=0-2&starts-with=bisc");
         }
 
         @Test
@@ -505,7 +764,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndContains("0-5", startsWith)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
@@ -518,7 +777,10 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=0-5&starts-with= -> 304 NOT MODIFIED")
         void when_startsWith_is_empty_then_should_return_an_empty_json_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=0-5&starts-with=");
+            given(productService.findAllByDescriptionIgnoreCaseStartingWith(eq(""), eq(createPageable("0-5", getDefaultSorting()))))
+                .willReturn(emptyPage());
+
+            testUriWithIfNoneMatch("/api/products?pag=0-5&starts-with=");
         }
 
         @Test
@@ -533,7 +795,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndContains("0-5", startsWith)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
@@ -546,7 +808,10 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=0-5&startsWith=cheese -> 304 NOT MODIFIED")
         void when_startsWith_does_not_match_anything_then_should_return_an_empty_json_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=0-5&startsWith=cheese");
+            final Pageable firstPageWithFiveProducts = createPageable("0-5", getDefaultSorting());
+            given(productService.findAll(eq(firstPageWithFiveProducts))).willReturn(createPage(firstPageWithFiveProducts));
+
+            testUriWithIfNoneMatch("/api/products?pag=0-5&startsWith=cheese");
         }
     }
 
@@ -564,7 +829,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndEndsWith("0-1", endsWith)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.currentCountOfItems").value(1))
@@ -585,7 +850,11 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=0-1&ends-with=choc -> 304 NOT MODIFIED")
         void should_return_a_page_with_one_product_that_end_with_choc_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=0-1&ends-with=choc");
+            final Pageable firstPageWithOneProduct = createPageable("0-1", getDefaultSorting());
+            given(productService.findAllByDescriptionIgnoreCaseEndingWith(eq("choc"), eq(firstPageWithOneProduct)))
+                .willReturn(createPage(firstPageWithOneProduct, filterByEndingWith("choc")));
+
+            testUriWithIfNoneMatch("/api/products?pag=0-1&ends-with=choc");
         }
 
         @Test
@@ -599,7 +868,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndEndsWith("1-1", endsWith)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.currentCountOfItems").value(1))
@@ -620,7 +889,11 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=1-1&ends-with=choc -> 304 NOT MODIFIED")
         void should_return_the_last_page_with_one_product_that_end_with_choc_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=1-1&ends-with=choc");
+            final Pageable theLastPageWithOneProduct = createPageable("1-1", getDefaultSorting());
+            given(productService.findAllByDescriptionIgnoreCaseEndingWith(eq("choc"), eq(theLastPageWithOneProduct)))
+                .willReturn(createPage(theLastPageWithOneProduct, filterByEndingWith("choc")));
+
+            testUriWithIfNoneMatch("/api/products?pag=1-1&ends-with=choc");
         }
 
         @Test
@@ -635,7 +908,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndEndsWith("0-3", emptyEndsWith)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
@@ -648,7 +921,10 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=0-3&ends-with= -> 304 NOT MODIFIED")
         void when_endsWith_is_empty_then_should_return_an_empty_json_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=0-3&ends-with=");
+            given(productService.findAllByDescriptionIgnoreCaseEndingWith(eq(""), eq(createPageable("0-3", getDefaultSorting()))))
+                .willReturn(emptyPage());
+
+            testUriWithIfNoneMatch("/api/products?pag=0-3&ends-with=");
         }
 
         @Test
@@ -663,7 +939,7 @@ class ProductControllerTest {
 
             makeRequestWithPageAndEndsWith("0-3", endsWith)
                 .andExpect(status().isOk())
-                .andExpect(header().string("ETag", equalTo("\"bbd074a4e28b46dfb10a2fd55d11685b\"")))
+                .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
                 .andExpect(header().string("Cache-Control", equalTo("no-cache, max-age=0, must-revalidate")))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
@@ -676,14 +952,10 @@ class ProductControllerTest {
         @Test
         @DisplayName("When if-none-match header matches then GET /api/products?pag=0-3&ends-with=toddy -> 304 NOT MODIFIED")
         void when_endsWith_does_not_match_anything_then_should_return_an_empty_json_but_must_return_nothing_with_NOT_MODIFIED() throws Exception {
-            testUriWithIfNoneMatchAndVerify("/api/products?pag=0-3&ends-with=toddy");
-        }
-    }
+            given(productService.findAllByDescriptionIgnoreCaseEndingWith(eq("toddy"), eq(createPageable("0-3", getDefaultSorting()))))
+                .willReturn(emptyPage());
 
-    void testUriWithIfNoneMatchAndVerify(final String uri) throws Exception {
-        testUriWithIfNoneMatch(uri);
-        verify(productCacheManager, times(1)).getRef();
-        verifyNoMoreInteractions(productCacheManager);
-        verifyNoInteractions(productService);
+            testUriWithIfNoneMatch("/api/products?pag=0-3&ends-with=toddy");
+        }
     }
 }
\ No newline at end of file
@@ -31,6 +31,8 @@ final class ProductControllerTestHelper {
 
     private static final String URL = "/api/products/";
 
+    static final String ETAG_PATTERN = "\"[0-9a-f]{32}\"";
+
     private ProductControllerTestHelper() {}
 
     private static MockHttpServletRequestBuilder setupRequestHeaders(final MockHttpServletRequestBuilder mockHttpServletRequestBuilder) {
@@ -166,15 +168,18 @@ final class ProductControllerTestHelper {
         }
     }
 
+    // Asks for the resource, then asks again presenting the ETag it got back
     static void testUriWithIfNoneMatch(final String uri) throws Exception {
-        mockMvc.perform(MockMvcRequestBuilders
-            .get(uri)
-            .accept(MediaType.ALL_VALUE)
-            .characterEncoding(StandardCharsets.UTF_8)
-            .header("If-None-Match", "bbd074a4e28b46dfb10a2fd55d11685b")
-        )
-        .andExpect(header().string("Etag", equalTo("bbd074a4e28b46dfb10a2fd55d11685b")))
-        .andExpect(content().string(emptyString()))
-        .andExpect(status().isNotModified());
+        final String eTag = mockMvc.perform(setupRequestHeaders(MockMvcRequestBuilders.get(uri)))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", matchesPattern(ETAG_PATTERN)))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+        mockMvc.perform(setupRequestHeaders(MockMvcRequestBuilders.get(uri)).header("If-None-Match", eTag))
+            .andExpect(header().string("ETag", equalTo(eTag)))
+            .andExpect(content().string(emptyString()))
+            .andExpect(status().isNotModified());
     }
 }
@@ -0,0 +1,129 @@
+package com.api.controller;
+
+import com.api.projection.PriceWithBarcode;
+import com.api.projection.SimpleProduct;
+import com.api.projection.SyncCursor;
+import com.api.projection.SyncDelta;
+import com.api.service.interfaces.SyncService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(value = {SyncController.class, GlobalErrorHandlingController.class})
+@AutoConfigureMockMvc(printOnlyOnFailure = false)
+public class SyncControllerTest {
+
+    @MockBean
+    private SyncService syncService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("GET /api/sync?since=2022-06-10T08:00:00Z - 200 OK")
+    void should_return_only_what_changed_since_the_watermark_along_with_a_new_one() throws Exception {
+        final Instant watermark = Instant.parse("2022-06-10T08:00:00Z");
+
+        given(syncService.findChangesSince(eq(watermark))).willReturn(
+            SyncDelta.builder()
+                .products(List.of(new SimpleProduct("ACHOC PO NESCAU 800G", 29250, "7891000055120")))
+                .prices(List.of(
+                    new PriceWithBarcode("7891000055120", new BigDecimal("16.5"), Instant.parse("2022-06-10T09:12:21.058Z")),
+                    new PriceWithBarcode("7896656800018", new BigDecimal("9.9"), Instant.parse("2022-06-10T09:13:01.001Z"))
+                ))
+                .watermark(Instant.parse("2022-06-11T08:00:00Z"))
+                .build()
+        );
+
+        mockMvc.perform(get("/api/sync").param("since", "2022-06-10T08:00:00Z").accept(MediaType.ALL))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "no-store"))
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.products", hasSize(1)))
+            .andExpect(jsonPath("$.products[0].barcode").value("7891000055120"))
+            .andExpect(jsonPath("$.prices[*].barcode", contains("7891000055120", "7896656800018")))
+            .andExpect(jsonPath("$.prices[*].value", contains(16.5, 9.9)))
+            .andExpect(jsonPath("$.watermark").value("2022-06-11T08:00:00Z"));
+
+        verify(syncService, only()).findChangesSince(eq(watermark));
+    }
+
+    @Test
+    @DisplayName("GET /api/sync - 200 OK")
+    void when_there_is_no_watermark_then_should_sync_everything() throws Exception {
+        given(syncService.findChangesSince(any(Instant.class))).willReturn(
+            new SyncDelta(Collections.emptyList(), Collections.emptyList(), Instant.parse("2022-06-11T08:00:00Z"), null)
+        );
+
+        mockMvc.perform(get("/api/sync").accept(MediaType.ALL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.watermark").value("2022-06-11T08:00:00Z"));
+
+        verify(syncService, only()).findChangesSince(eq(Instant.EPOCH));
+    }
+
+    @Test
+    @DisplayName("GET /api/sync?cursor={cursor} - 200 OK")
+    void when_a_cursor_is_passed_then_should_continue_from_it() throws Exception {
+        final SyncCursor cursor = new SyncCursor(
+            Instant.parse("2022-06-11T08:00:00Z"),
+            Instant.parse("2022-06-10T09:00:00Z"),
+            UUID.fromString("37a89eba-dd3b-4179-9538-d9e5f720fc11"),
+            Instant.parse("2022-06-10T09:13:01.001Z"),
+            UUID.fromString("5540ac81-43f9-490f-8b32-e522c9d9ea9e")
+        );
+        given(syncService.findChangesAfter(any(SyncCursor.class))).willReturn(
+            new SyncDelta(Collections.emptyList(), Collections.emptyList(), null, cursor.toString())
+        );
+
+        mockMvc.perform(get("/api/sync").param("cursor", cursor.toString()).accept(MediaType.ALL))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.watermark").doesNotExist())
+            .andExpect(jsonPath("$.cursor").value(cursor.toString()));
+
+        verify(syncService, only()).findChangesAfter(argThat(actualCursor ->
+            actualCursor.getProductId().equals(cursor.getProductId())
+                && actualCursor.getPriceInstant().equals(cursor.getPriceInstant())
+                && actualCursor.getUpTo().equals(cursor.getUpTo())
+        ));
+    }
+
+    @Test
+    @DisplayName("GET /api/sync?cursor=garbage - 400 BAD REQUEST")
+    void when_the_cursor_is_malformed_then_should_return_bad_request() throws Exception {
+        mockMvc.perform(get("/api/sync").param("cursor", "garbage").accept(MediaType.ALL))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(syncService);
+    }
+
+    @Test
+    @DisplayName("GET /api/sync?since=yesterday - 400 BAD REQUEST")
+    void when_the_watermark_is_not_an_instant_then_should_return_bad_request() throws Exception {
+        mockMvc.perform(get("/api/sync").param("since", "yesterday").accept(MediaType.ALL))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(syncService);
+    }
+}
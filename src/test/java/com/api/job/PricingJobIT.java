@@ -2,6 +2,7 @@ package com.api.job;
 
 import com.api.Resources;
 import com.api.repository.PriceRepository;
+import com.api.service.CacheWarmer;
 import com.api.service.interfaces.EmailService;
 import com.api.service.interfaces.ProductExternalService;
 import com.api.service.interfaces.ProductService;
@@ -35,11 +36,14 @@ public class PricingJobIT {
     @MockBean
     private EmailService emailService;
 
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
     private PricingJob jobUnderTest;
 
     @BeforeEach
     void before() {
-        jobUnderTest = new PricingJob(productExternalService, productService, emailService);
+        jobUnderTest = new PricingJob(productExternalService, productService, emailService, cacheWarmer);
     }
 
     @Test
@@ -0,0 +1,94 @@
+package com.api.service;
+
+import com.api.entity.Product;
+import com.api.projection.CacheInvalidation;
+import com.api.projection.PriceWithInstant;
+import com.api.repository.PriceRepository;
+import com.api.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class CacheInvalidationBusIT {
+
+    @Autowired
+    private CacheManager<Product, UUID> productCacheManager;
+
+    @Autowired
+    private CacheManager<PriceWithInstant, UUID> priceCacheManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void when_another_node_publishes_an_invalidation_then_should_evict_its_links_and_adopt_the_shared_ref() throws Exception {
+        final String barcodeLink = "barcode:7896004004501";
+        productCacheManager.sync(barcodeLink, () -> productRepository.findByBarcode("7896004004501").map(List::of).orElseThrow());
+        final long version = jdbcTemplate.queryForObject("SELECT nextval('cache_version_seq')", Long.class);
+        final CacheInvalidation cacheInvalidation = CacheInvalidation.builder()
+            .origin("another-node")
+            .version(version)
+            .keys(Collections.emptyList())
+            .barcode("7896004004501")
+            .description("CEREAL BARRA KELLOGGS 60G SUCRILHOS CHOC")
+            .newProduct(false)
+            .build();
+
+        jdbcTemplate.queryForList(
+            "SELECT pg_notify('cache_invalidation', ?)", objectMapper.writeValueAsString(cacheInvalidation)
+        );
+
+        final UUID expectedRef = UUID.nameUUIDFromBytes(("cache_invalidation:"+version).getBytes(StandardCharsets.UTF_8));
+        awaitUntil(() -> expectedRef.equals(productCacheManager.getRef()));
+        assertThat(productCacheManager.containsKey(barcodeLink)).isFalse();
+    }
+
+    @Test
+    void when_another_node_publishes_an_invalidation_then_should_evict_the_price_history_of_its_product() throws Exception {
+        final Sort sort = Sort.by("instant").descending();
+        final String priceHistoryLink = "price-history:7896004004501"+sort;
+        priceCacheManager.sync(priceHistoryLink, () -> priceRepository.findAllPricesWithInstantByProductBarcode("7896004004501", sort));
+        final long version = jdbcTemplate.queryForObject("SELECT nextval('cache_version_seq')", Long.class);
+        final CacheInvalidation cacheInvalidation = CacheInvalidation.builder()
+            .origin("another-node")
+            .version(version)
+            .keys(Collections.emptyList())
+            .barcode("7896004004501")
+            .description("CEREAL BARRA KELLOGGS 60G SUCRILHOS CHOC")
+            .newProduct(false)
+            .build();
+
+        jdbcTemplate.queryForList(
+            "SELECT pg_notify('cache_invalidation', ?)", objectMapper.writeValueAsString(cacheInvalidation)
+        );
+
+        awaitUntil(() -> !priceCacheManager.containsKey(priceHistoryLink));
+    }
+
+    private static void awaitUntil(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) Thread.sleep(50);
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
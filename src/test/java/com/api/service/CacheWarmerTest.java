@@ -0,0 +1,76 @@
+package com.api.service;
+
+import com.api.service.interfaces.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class CacheWarmerTest {
+
+    private ProductService productService;
+    private QueryHistory queryHistory;
+    private CacheWarmer cacheWarmerUnderTest;
+
+    @BeforeEach
+    void setup() {
+        productService = mock(ProductService.class);
+        queryHistory = new QueryHistory();
+        cacheWarmerUnderTest = new CacheWarmer(productService, queryHistory, 2, 5, 1, 2, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheWarmerUnderTest.stop();
+    }
+
+    @Test
+    void should_preload_the_listings_the_first_pages_and_the_most_frequent_recent_query() throws Exception {
+        final Pageable firstPage = PageRequest.of(0, 5, Sort.by("description"));
+        queryHistory.record("contains", "500G", firstPage);
+        queryHistory.record("contains", "500G", firstPage);
+        queryHistory.record("ends-with", "CHOC", firstPage);
+
+        cacheWarmerUnderTest.warmUp().get(10, TimeUnit.SECONDS);
+
+        verify(productService, times(1)).findAll(eq(Sort.by("description").ascending()));
+        verify(productService, times(1)).findAllWithLatestPrice();
+        verify(productService, times(1)).warmUp(eq(new QueryHistory.RecentQuery("listing", "all", firstPage)));
+        verify(productService, times(1))
+            .warmUp(eq(new QueryHistory.RecentQuery("listing", "all", PageRequest.of(1, 5, Sort.by("description")))));
+        verify(productService, times(1)).warmUp(eq(new QueryHistory.RecentQuery("contains", "500G", firstPage)));
+        verifyNoMoreInteractions(productService);
+    }
+
+    @Test
+    void when_a_query_fails_then_should_still_run_the_remaining_ones() throws Exception {
+        given(productService.findAllWithLatestPrice()).willThrow(new IllegalStateException("Database is down"));
+
+        cacheWarmerUnderTest.warmUp().get(10, TimeUnit.SECONDS);
+
+        verify(productService, times(1)).findAll(eq(Sort.by("description").ascending()));
+        verify(productService, times(2)).warmUp(any(QueryHistory.RecentQuery.class));
+    }
+
+    @Test
+    void when_history_decays_then_should_forget_queries_that_are_no_longer_requested() {
+        final Pageable firstPage = PageRequest.of(0, 5, Sort.by("description"));
+        queryHistory.record("contains", "500G", firstPage);
+        queryHistory.record("contains", "500G", firstPage);
+        queryHistory.record("starts-with", "BISC", firstPage);
+
+        queryHistory.decay();
+
+        assertThat(queryHistory.mostFrequent(10))
+            .extracting(QueryHistory.RecentQuery::getExpression)
+            .containsExactly("500G");
+    }
+}
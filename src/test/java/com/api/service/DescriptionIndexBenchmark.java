@@ -0,0 +1,117 @@
+package com.api.service;
+
+import com.api.entity.Product;
+import com.api.repository.ProductRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+// Run with ./gradlew benchmark, the catalog size can be changed with -Dbenchmark.products
+@Tag("benchmark")
+@Log4j2
+public class DescriptionIndexBenchmark {
+
+    private static final int NUMBER_OF_PRODUCTS = Integer.getInteger("benchmark.products", 1_000_000);
+    private static final int NUMBER_OF_QUERIES = 2_000;
+    private static final int LIMIT = 10;
+
+    private final Random random = new Random(42);
+    private List<Product> products;
+    private DescriptionIndex descriptionIndexUnderTest;
+
+    @BeforeEach
+    void setup() {
+        final List<String> categories = wordsOf(2_000, 5, 9);
+        final List<String> brands = wordsOf(8_000, 4, 10);
+        final List<String> variants = wordsOf(300, 4, 8);
+
+        products = new ArrayList<>(NUMBER_OF_PRODUCTS);
+        for (int i = 0; i < NUMBER_OF_PRODUCTS; i++)
+            products.add(Product.builder()
+                .id(new UUID(0, i))
+                .description(
+                    pick(categories)+" "+pick(brands)+" "+(50 + random.nextInt(20) * 50)+(random.nextBoolean() ? "G " : "ML ")
+                        +pick(variants)
+                )
+                .barcode(String.format("789%010d", i))
+                .sequenceCode(i)
+                .build()
+            );
+
+        final ProductRepository productRepositoryMock = mock(ProductRepository.class);
+        given(productRepositoryMock.findAll()).willReturn(products);
+        descriptionIndexUnderTest = new DescriptionIndex(productRepositoryMock, true);
+        descriptionIndexUnderTest.rebuild();
+    }
+
+    @Test
+    void fuzzy_search_recall_and_latency() {
+        int hits = 0;
+        final long[] latencies = new long[NUMBER_OF_QUERIES];
+        for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+            final Product target = pick(products);
+            final String[] words = target.getDescription().split(" ");
+            // Staff type the category and the brand, one of them with a typo
+            final int misspelledWord = random.nextInt(2);
+            words[misspelledWord] = misspell(words[misspelledWord]);
+            final String expression = (words[0]+" "+words[1]).toLowerCase(Locale.ROOT);
+
+            final long startedAt = System.nanoTime();
+            final List<Product> similarProducts =
+                descriptionIndexUnderTest.findAllByDescriptionSimilarTo(expression, LIMIT).orElseThrow();
+            latencies[i] = System.nanoTime() - startedAt;
+
+            if (similarProducts.stream().anyMatch(product -> sharesCategoryAndBrand(product, target))) hits++;
+        }
+
+        Arrays.sort(latencies);
+        final double recall = (double) hits / NUMBER_OF_QUERIES;
+        log.info(
+            "Fuzzy search over "+NUMBER_OF_PRODUCTS+" products: recall@"+LIMIT+"="+recall
+                +", p50="+latencies[NUMBER_OF_QUERIES / 2] / 1_000+"us"
+                +", p99="+latencies[NUMBER_OF_QUERIES * 99 / 100] / 1_000+"us"
+                +", max="+latencies[NUMBER_OF_QUERIES - 1] / 1_000+"us"
+        );
+
+        assertThat(recall).isGreaterThanOrEqualTo(0.95);
+    }
+
+    private boolean sharesCategoryAndBrand(final Product product, final Product target) {
+        final String[] words = product.getDescription().split(" ");
+        final String[] targetWords = target.getDescription().split(" ");
+        return words[0].equals(targetWords[0]) && words[1].equals(targetWords[1]);
+    }
+
+    private String misspell(final String word) {
+        final StringBuilder misspelledWord = new StringBuilder(word);
+        final int position = random.nextInt(word.length());
+        final char letter = (char) ('A' + random.nextInt(26));
+        switch (random.nextInt(3)) {
+            case 0: misspelledWord.setCharAt(position, letter); break;
+            case 1: misspelledWord.insert(position, letter); break;
+            default: misspelledWord.deleteCharAt(position);
+        }
+        return misspelledWord.toString();
+    }
+
+    private List<String> wordsOf(final int numberOfWords, final int minLength, final int maxLength) {
+        final Set<String> words = new LinkedHashSet<>();
+        while (words.size() < numberOfWords) {
+            final StringBuilder word = new StringBuilder();
+            final int length = minLength + random.nextInt(maxLength - minLength + 1);
+            for (int i = 0; i < length; i++) word.append((char) ('A' + random.nextInt(26)));
+            words.add(word.toString());
+        }
+        return new ArrayList<>(words);
+    }
+
+    private <T> T pick(final List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
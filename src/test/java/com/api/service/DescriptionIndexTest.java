@@ -0,0 +1,226 @@
+package com.api.service;
+
+import com.api.Resources;
+import com.api.entity.Product;
+import com.api.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+public class DescriptionIndexTest {
+
+    private ProductRepository productRepositoryMock;
+    private DescriptionIndex descriptionIndexUnderTest;
+
+    @BeforeEach
+    void setup() {
+        productRepositoryMock = mock(ProductRepository.class);
+        given(productRepositoryMock.findAll()).willReturn(Resources.PRODUCTS_SAMPLE);
+        descriptionIndexUnderTest = new DescriptionIndex(productRepositoryMock, true);
+        descriptionIndexUnderTest.rebuild();
+    }
+
+    @Test
+    void when_searching_for_a_contained_expression_then_should_ignore_case_and_count_every_match() {
+        final Optional<Page<Product>> actualPage =
+            descriptionIndexUnderTest.findAllByDescriptionContaining("milho", PageRequest.of(0, 5));
+
+        assertThat(actualPage).isPresent();
+        assertThat(actualPage.get().getTotalElements()).isEqualTo(2);
+        assertThat(actualPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("MILHO VDE PREDILECTA 170G LT", "OLEO MILHO LIZA 900ML");
+    }
+
+    @Test
+    void when_the_expression_is_shorter_than_a_trigram_then_should_still_find_every_match() {
+        final Optional<Page<Product>> actualPage =
+            descriptionIndexUnderTest.findAllByDescriptionContaining("DE", PageRequest.of(0, 5));
+
+        assertThat(actualPage).isPresent();
+        assertThat(actualPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("LIMP M.USO OMO 500ML DESINF HERBAL", "MILHO VDE PREDILECTA 170G LT");
+    }
+
+    @Test
+    void when_requesting_a_later_page_then_should_keep_the_total_of_the_whole_search() {
+        final Optional<Page<Product>> actualPage =
+            descriptionIndexUnderTest.findAllByDescriptionContaining("500", PageRequest.of(1, 2, Sort.by("description")));
+
+        assertThat(actualPage).isPresent();
+        assertThat(actualPage.get().getTotalElements()).isEqualTo(5);
+        assertThat(actualPage.get().getTotalPages()).isEqualTo(3);
+        assertThat(actualPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("LIMP M.USO OMO 500ML DESINF HERBAL", "SAL MARINHO LEBRE 500G GOURMET");
+    }
+
+    @Test
+    void when_searching_for_a_prefix_or_a_suffix_then_should_match_only_at_that_end() {
+        final Optional<Page<Product>> actualStartingPage =
+            descriptionIndexUnderTest.findAllByDescriptionStartingWith("bisc", PageRequest.of(0, 5));
+        final Optional<Page<Product>> actualEndingPage =
+            descriptionIndexUnderTest.findAllByDescriptionEndingWith("CHOC", PageRequest.of(0, 5));
+
+        assertThat(actualStartingPage).isPresent();
+        assertThat(actualStartingPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("BISC ROSQ MARILAN 350G INT", "BISC WAFER TODDY 132G CHOC", "BISC ZABET 350G LEITE");
+        assertThat(actualEndingPage).isPresent();
+        assertThat(actualEndingPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("BISC WAFER TODDY 132G CHOC", "BOLINHO BAUDUC 40G GOTAS CHOC");
+    }
+
+    @Test
+    void when_a_product_is_put_then_should_be_found_right_away() {
+        descriptionIndexUnderTest.put(Product.builder()
+            .id(UUID.fromString("5b2d1d0f-3a1e-4f63-9c43-7b7d1c1f2a10"))
+            .description("ACHOC PO TODDY 400G")
+            .barcode("7894321711263")
+            .sequenceCode(1184)
+            .build()
+        );
+
+        final Optional<Page<Product>> actualPage =
+            descriptionIndexUnderTest.findAllByDescriptionStartingWith("ACHOC", PageRequest.of(0, 5));
+
+        assertThat(actualPage).isPresent();
+        assertThat(actualPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("ACHOC PO NESCAU 800G", "ACHOC PO TODDY 400G");
+    }
+
+    @Test
+    void when_a_product_is_put_again_then_should_only_be_found_by_its_new_description() {
+        descriptionIndexUnderTest.put(Product.builder()
+            .id(UUID.fromString("378be7fc-4a82-4730-9535-05a842bd2fd2"))
+            .description("BISC WAFER TODDY 132G MORANGO")
+            .barcode("7896071024709")
+            .sequenceCode(122504)
+            .build()
+        );
+
+        final Optional<Page<Product>> actualStartingPage =
+            descriptionIndexUnderTest.findAllByDescriptionStartingWith("bisc", PageRequest.of(0, 5));
+        final Optional<Page<Product>> actualEndingPage =
+            descriptionIndexUnderTest.findAllByDescriptionEndingWith("CHOC", PageRequest.of(0, 5));
+
+        assertThat(actualStartingPage).isPresent();
+        assertThat(actualStartingPage.get().getTotalElements()).isEqualTo(3);
+        assertThat(actualStartingPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("BISC ROSQ MARILAN 350G INT", "BISC WAFER TODDY 132G MORANGO", "BISC ZABET 350G LEITE");
+        assertThat(actualEndingPage).isPresent();
+        assertThat(actualEndingPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("BOLINHO BAUDUC 40G GOTAS CHOC");
+    }
+
+    @Test
+    void when_a_product_is_put_while_the_catalog_is_read_then_should_survive_the_rebuild() {
+        final Product productPutDuringRebuild = Product.builder()
+            .id(UUID.fromString("5b2d1d0f-3a1e-4f63-9c43-7b7d1c1f2a10"))
+            .description("ACHOC PO TODDY 400G")
+            .barcode("7894321711263")
+            .sequenceCode(1184)
+            .build();
+        given(productRepositoryMock.findAll()).willAnswer(invocation -> {
+            descriptionIndexUnderTest.put(productPutDuringRebuild);
+            return Resources.PRODUCTS_SAMPLE;
+        });
+
+        descriptionIndexUnderTest.rebuild();
+        final Optional<Page<Product>> actualPage =
+            descriptionIndexUnderTest.findAllByDescriptionStartingWith("ACHOC", PageRequest.of(0, 5));
+
+        assertThat(actualPage).isPresent();
+        assertThat(actualPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("ACHOC PO NESCAU 800G", "ACHOC PO TODDY 400G");
+    }
+
+    @Test
+    void when_the_expression_has_accents_then_should_match_descriptions_without_them() {
+        descriptionIndexUnderTest.put(Product.builder()
+            .id(UUID.fromString("0c7d0c43-8b8a-4d0b-9f5e-2b8f3f3c6a21"))
+            .description("ACUCAR REF UNIAO 1KG")
+            .barcode("7891910000197")
+            .sequenceCode(4127)
+            .build()
+        );
+
+        final Optional<Page<Product>> actualPage =
+            descriptionIndexUnderTest.findAllByDescriptionStartingWith("açúcar", PageRequest.of(0, 5));
+
+        assertThat(actualPage).isPresent();
+        assertThat(actualPage.get().getContent()).extracting(Product::getDescription)
+            .containsExactly("ACUCAR REF UNIAO 1KG");
+    }
+
+    @Test
+    void when_suggesting_for_a_prefix_then_should_return_at_most_the_limit_in_description_order() {
+        final Optional<List<Product>> actualSuggestions = descriptionIndexUnderTest.suggest("b", 4);
+        final Optional<List<Product>> actualSuggestionsForAnUnknownPrefix = descriptionIndexUnderTest.suggest("xyz", 4);
+
+        assertThat(actualSuggestions).isPresent();
+        assertThat(actualSuggestions.get()).extracting(Product::getDescription).containsExactly(
+            "BALA GELATINA FINI 500G BURGUER",
+            "BISC ROSQ MARILAN 350G INT",
+            "BISC WAFER TODDY 132G CHOC",
+            "BISC ZABET 350G LEITE"
+        );
+        assertThat(actualSuggestionsForAnUnknownPrefix).hasValue(List.of());
+    }
+
+    @Test
+    void when_the_expression_has_a_typo_then_should_still_find_the_product() {
+        descriptionIndexUnderTest.put(Product.builder()
+            .id(UUID.fromString("8f1a4a9e-2d6b-4c1e-a0d3-5e7c9b2f4d11"))
+            .description("CEREAL SUCRILHOS KELLOGGS 690G")
+            .barcode("7896004000855")
+            .sequenceCode(5321)
+            .build()
+        );
+
+        final Optional<List<Product>> actualNescauProducts = descriptionIndexUnderTest.findAllByDescriptionSimilarTo("nescal", 5);
+        final Optional<List<Product>> actualSucrilhosProducts = descriptionIndexUnderTest.findAllByDescriptionSimilarTo("sucrilho", 5);
+
+        assertThat(actualNescauProducts).isPresent();
+        assertThat(actualNescauProducts.get()).extracting(Product::getDescription).containsExactly("ACHOC PO NESCAU 800G");
+        assertThat(actualSucrilhosProducts).isPresent();
+        assertThat(actualSucrilhosProducts.get()).extracting(Product::getDescription)
+            .containsExactly("CEREAL SUCRILHOS KELLOGGS 690G");
+    }
+
+    @Test
+    void when_more_words_are_close_then_should_rank_that_product_first() {
+        final Optional<List<Product>> actualProducts = descriptionIndexUnderTest.findAllByDescriptionSimilarTo("oleo milio", 5);
+        final Optional<List<Product>> actualLimitedProducts = descriptionIndexUnderTest.findAllByDescriptionSimilarTo("oleo milio", 1);
+
+        assertThat(actualProducts).isPresent();
+        assertThat(actualProducts.get()).extracting(Product::getDescription)
+            .containsExactly("OLEO MILHO LIZA 900ML", "MILHO VDE PREDILECTA 170G LT");
+        assertThat(actualLimitedProducts).isPresent();
+        assertThat(actualLimitedProducts.get()).extracting(Product::getDescription).containsExactly("OLEO MILHO LIZA 900ML");
+    }
+
+    @Test
+    void when_the_sort_is_not_by_description_then_should_leave_it_to_the_database() {
+        final Optional<Page<Product>> actualPage =
+            descriptionIndexUnderTest.findAllByDescriptionContaining("500", PageRequest.of(0, 5, Sort.by("sequenceCode")));
+
+        assertThat(actualPage).isEmpty();
+    }
+
+    @Test
+    void when_disabled_then_should_never_load_products_nor_answer() {
+        final ProductRepository untouchedProductRepositoryMock = mock(ProductRepository.class);
+        final DescriptionIndex disabledDescriptionIndex = new DescriptionIndex(untouchedProductRepositoryMock, false);
+        disabledDescriptionIndex.rebuild();
+
+        assertThat(disabledDescriptionIndex.findAllByDescriptionContaining("500", PageRequest.of(0, 5))).isEmpty();
+        verifyNoInteractions(untouchedProductRepositoryMock);
+    }
+}
@@ -0,0 +1,97 @@
+package com.api.service;
+
+import com.api.entity.Product;
+import com.api.repository.ProductRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against the same database as the integration tests, with ./gradlew benchmark
+@SpringBootTest
+@Tag("benchmark")
+@Log4j2
+public class DescriptionSearchBenchmark {
+
+    private static final int MEASURED_ROUNDS = 500;
+    private static final List<String> EXPRESSIONS = List.of("500g", "choc", "leite", "café", "100%", "a");
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private DescriptionIndex descriptionIndex;
+
+    @BeforeEach
+    void setup() {
+        descriptionIndex = new DescriptionIndex(productRepository, true);
+        descriptionIndex.rebuild();
+    }
+
+    @Test
+    void contains_through_the_index_and_through_each_database_mode() {
+        for (final DescriptionSearch.Mode mode : DescriptionSearch.Mode.values()) {
+            final DescriptionSearch descriptionSearch = new DescriptionSearch(productRepository, mode);
+            compare("contains", mode, (expression, pageable) -> descriptionIndex.findAllByDescriptionContaining(expression, pageable).orElseThrow(), descriptionSearch::findAllContaining);
+        }
+    }
+
+    @Test
+    void ends_with_through_the_index_and_through_each_database_mode() {
+        for (final DescriptionSearch.Mode mode : DescriptionSearch.Mode.values()) {
+            final DescriptionSearch descriptionSearch = new DescriptionSearch(productRepository, mode);
+            compare("ends-with", mode, (expression, pageable) -> descriptionIndex.findAllByDescriptionEndingWith(expression, pageable).orElseThrow(), descriptionSearch::findAllEndingWith);
+        }
+    }
+
+    @Test
+    void starts_with_through_the_index_and_through_the_database() {
+        final DescriptionSearch descriptionSearch = new DescriptionSearch(productRepository, DescriptionSearch.Mode.LIKE);
+        compare("starts-with", DescriptionSearch.Mode.LIKE, (expression, pageable) -> descriptionIndex.findAllByDescriptionStartingWith(expression, pageable).orElseThrow(), descriptionSearch::findAllStartingWith);
+    }
+
+    // Either path may answer the same request, so both have to agree on the rows, their order and the total
+    private void compare(
+        final String family,
+        final DescriptionSearch.Mode mode,
+        final BiFunction<String, Pageable, Page<Product>> throughIndex,
+        final BiFunction<String, Pageable, Page<Product>> throughDatabase
+    ) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        for (final String expression : EXPRESSIONS) {
+            final Page<Product> indexPage = throughIndex.apply(expression, FIRST_PAGE);
+            final Page<Product> databasePage = transactionTemplate.execute(status -> throughDatabase.apply(expression, FIRST_PAGE));
+
+            assertThat(databasePage.getTotalElements()).as(family+" "+expression).isEqualTo(indexPage.getTotalElements());
+            assertThat(databasePage.getContent()).extracting(Product::getBarcode).as(family+" "+expression)
+                .containsExactlyElementsOf(indexPage.map(Product::getBarcode).getContent());
+
+            final long indexNanos = nanosPerRound(() -> throughIndex.apply(expression, FIRST_PAGE));
+            final long databaseNanos = nanosPerRound(() -> transactionTemplate.execute(status -> throughDatabase.apply(expression, FIRST_PAGE)));
+            log.info(family+" "+expression+": "+indexNanos / 1_000+"us through the index, "+databaseNanos / 1_000+"us through "+mode);
+        }
+    }
+
+    private long nanosPerRound(final Runnable search) {
+        for (int round = 0; round < MEASURED_ROUNDS; round++) search.run();
+        final long startedAt = System.nanoTime();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) search.run();
+        return (System.nanoTime() - startedAt) / MEASURED_ROUNDS;
+    }
+}
@@ -0,0 +1,78 @@
+package com.api.service;
+
+import com.api.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collections;
+
+import static org.mockito.BDDMockito.*;
+
+public class DescriptionSearchTest {
+
+    private final ProductRepository productRepositoryMock = mock(ProductRepository.class);
+    private final Pageable firstPage = PageRequest.of(0, 5);
+    private final Pageable firstPageInSearchKeyOrder = PageRequest.of(0, 5, Sort.by("searchKey", "barcode"));
+    private final Pageable firstPageInNativeSearchKeyOrder = PageRequest.of(0, 5, Sort.by("search_key", "barcode"));
+
+    @Test
+    void when_in_like_mode_then_should_use_the_derived_queries_on_the_search_key() {
+        given(productRepositoryMock.findAllBySearchKeyContaining(eq("NESCAU"), eq(firstPageInSearchKeyOrder)))
+            .willReturn(new PageImpl<>(Collections.emptyList()));
+
+        new DescriptionSearch(productRepositoryMock, DescriptionSearch.Mode.LIKE).findAllContaining("nescáu", firstPage);
+
+        verify(productRepositoryMock, times(1)).findAllBySearchKeyContaining(eq("NESCAU"), eq(firstPageInSearchKeyOrder));
+        verify(productRepositoryMock, never()).findAllBySearchKeyMatching(any(), any());
+    }
+
+    @Test
+    void when_in_trigram_mode_then_should_anchor_the_pattern_to_the_searched_end() {
+        given(productRepositoryMock.findAllBySearchKeyMatching(any(), eq(firstPageInNativeSearchKeyOrder)))
+            .willReturn(new PageImpl<>(Collections.emptyList()));
+        final DescriptionSearch descriptionSearchUnderTest =
+            new DescriptionSearch(productRepositoryMock, DescriptionSearch.Mode.TRIGRAM);
+
+        descriptionSearchUnderTest.findAllContaining("nescau", firstPage);
+        descriptionSearchUnderTest.findAllEndingWith("800g", firstPage);
+
+        verify(productRepositoryMock, times(1)).findAllBySearchKeyMatching(eq("%NESCAU%"), eq(firstPageInNativeSearchKeyOrder));
+        verify(productRepositoryMock, times(1)).findAllBySearchKeyMatching(eq("%800G"), eq(firstPageInNativeSearchKeyOrder));
+    }
+
+    @Test
+    void when_searching_for_a_prefix_then_should_always_seek_through_the_folded_search_key() {
+        given(productRepositoryMock.findAllBySearchKeyStartingWith(any(), eq(firstPageInSearchKeyOrder)))
+            .willReturn(new PageImpl<>(Collections.emptyList()));
+
+        new DescriptionSearch(productRepositoryMock, DescriptionSearch.Mode.TRIGRAM).findAllStartingWith("açúcar", firstPage);
+        new DescriptionSearch(productRepositoryMock, DescriptionSearch.Mode.LIKE).findAllStartingWith("Açucar", firstPage);
+
+        verify(productRepositoryMock, times(2)).findAllBySearchKeyStartingWith(eq("ACUCAR"), eq(firstPageInSearchKeyOrder));
+        verify(productRepositoryMock, never()).findAllBySearchKeyMatching(any(), any());
+    }
+
+    @Test
+    void when_sorted_by_something_the_index_does_not_answer_then_should_keep_that_sort() {
+        final Pageable firstPageBySequenceCode = PageRequest.of(0, 5, Sort.by("sequenceCode").descending());
+        given(productRepositoryMock.findAllBySearchKeyEndingWith(any(), eq(firstPageBySequenceCode)))
+            .willReturn(new PageImpl<>(Collections.emptyList()));
+
+        new DescriptionSearch(productRepositoryMock, DescriptionSearch.Mode.LIKE).findAllEndingWith("choc", firstPageBySequenceCode);
+
+        verify(productRepositoryMock, times(1)).findAllBySearchKeyEndingWith(eq("CHOC"), eq(firstPageBySequenceCode));
+    }
+
+    @Test
+    void when_the_expression_has_wildcards_then_should_match_them_literally() {
+        given(productRepositoryMock.findAllBySearchKeyMatching(any(), eq(firstPageInNativeSearchKeyOrder)))
+            .willReturn(new PageImpl<>(Collections.emptyList()));
+
+        new DescriptionSearch(productRepositoryMock, DescriptionSearch.Mode.TRIGRAM).findAllContaining("100%_", firstPage);
+
+        verify(productRepositoryMock, times(1)).findAllBySearchKeyMatching(eq("%100\\%\\_%"), eq(firstPageInNativeSearchKeyOrder));
+    }
+}
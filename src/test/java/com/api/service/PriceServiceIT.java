@@ -1,6 +1,6 @@
 package com.api.service;
 
-import com.api.entity.Price;
+import com.api.projection.PriceWithInstant;
 import com.api.service.interfaces.PriceService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -29,7 +29,7 @@ public class PriceServiceIT {
     private PriceService priceService;
 
     @Autowired
-    private CacheManager<Price, UUID> priceCacheManager;
+    private CacheManager<PriceWithInstant, UUID> priceCacheManager;
 
     @Nested
     final class FindByIdTest {
@@ -39,8 +39,8 @@ public class PriceServiceIT {
         void when_id_exist_then_should_return_a_price() {
             final UUID existentUuid = UUID.fromString("9423f8be-2a4f-4baa-b457-6a904bf633f0");
 
-            final Price actualPrice = priceService.findById(existentUuid);
-            final boolean cached = priceCacheManager.containsKey(existentUuid.toString());
+            final PriceWithInstant actualPrice = priceService.findById(existentUuid);
+            final boolean cached = priceCacheManager.containsKey("price-by-id:"+existentUuid.toString());
 
             assertThat(actualPrice).isNotNull();
             assertThat(actualPrice.getValue()).isEqualTo(new BigDecimal("12.70"));
@@ -53,7 +53,7 @@ public class PriceServiceIT {
             final UUID nonExisting = UUID.fromString("e236e904-49f0-41b0-b3aa-c9f582f38fc1");
 
             final Throwable actualThrowable = catchThrowable(() -> priceService.findById(nonExisting));
-            final boolean cached = priceCacheManager.containsKey(nonExisting.toString());
+            final boolean cached = priceCacheManager.containsKey("price-by-id:"+nonExisting.toString());
 
             checkResponseStatusExceptionWithMessage(actualThrowable, "Price not found");
             assertThat(cached).isFalse();
@@ -82,8 +82,8 @@ public class PriceServiceIT {
 
         @Test
         void should_return_prices_ordered_by_its_instant_desc() {
-            final List<Price> actualPrices = priceService.findByProductBarcode(BARCODE, ORDER_BY_INSTANT_DESC);
-            final boolean cached = priceCacheManager.containsKey(BARCODE+ ORDER_BY_INSTANT_DESC);
+            final List<PriceWithInstant> actualPrices = priceService.findByProductBarcode(BARCODE, ORDER_BY_INSTANT_DESC);
+            final boolean cached = priceCacheManager.containsKey("price-history:"+BARCODE+ORDER_BY_INSTANT_DESC);
 
             assertThat(actualPrices).hasSize(10);
             checkOrderingWithAllPrices(actualPrices);
@@ -94,8 +94,8 @@ public class PriceServiceIT {
         void should_return_only_the_first_three_prices() {
             final Pageable theFirstThreePrices = PageRequest.of(0, 3, ORDER_BY_INSTANT_DESC);
 
-            final List<Price> actualPrices = priceService.findByProductBarcode(BARCODE, theFirstThreePrices);
-            final boolean cached = priceCacheManager.containsKey(BARCODE+"-pag=0-3");
+            final List<PriceWithInstant> actualPrices = priceService.findByProductBarcode(BARCODE, theFirstThreePrices);
+            final boolean cached = priceCacheManager.containsKey("price-history:"+BARCODE+"-pag=0-3");
 
             assertThat(actualPrices).hasSize(3);
             checkOrderingWithPrices(actualPrices, "12.70", "19.00", "16.50");
@@ -107,8 +107,8 @@ public class PriceServiceIT {
         void when_page_size_is_over_max_page_size_then_should_return_all_prices() {
             final Pageable overMaxPageSize = PageRequest.of(0, 12, ORDER_BY_INSTANT_DESC);
 
-            final List<Price> actualPrices = priceService.findByProductBarcode(BARCODE, overMaxPageSize);
-            final boolean cached = priceCacheManager.containsKey(BARCODE+"-pag=0-12");
+            final List<PriceWithInstant> actualPrices = priceService.findByProductBarcode(BARCODE, overMaxPageSize);
+            final boolean cached = priceCacheManager.containsKey("price-history:"+BARCODE+"-pag=0-12");
 
 
             assertThat(actualPrices).hasSize(10);
@@ -123,7 +123,7 @@ public class PriceServiceIT {
 
             final Throwable actualThrowable =
                 catchThrowable(() -> priceService.findByProductBarcode(BARCODE, overMaxPageSize));
-            final boolean cached = priceCacheManager.containsKey(BARCODE+"-pag=2-5");
+            final boolean cached = priceCacheManager.containsKey("price-history:"+BARCODE+"-pag=2-5");
 
             checkResponseStatusExceptionWithMessage(actualThrowable, "Product not found");
             assertThat(cached).isFalse();
@@ -139,14 +139,14 @@ public class PriceServiceIT {
         });
     }
 
-    private void checkOrderingWithPrices(final List<Price> actualPrices, final String... expectedPricesInString) {
+    private void checkOrderingWithPrices(final List<PriceWithInstant> actualPrices, final String... expectedPricesInString) {
         assertThat(actualPrices)
-            .extracting(Price::getValue)
+            .extracting(PriceWithInstant::getValue)
             .map(BigDecimal::toPlainString)
             .containsExactly(expectedPricesInString);
     }
 
-    private void checkOrderingWithAllPrices(final List<Price> actualPrices) {
+    private void checkOrderingWithAllPrices(final List<PriceWithInstant> actualPrices) {
         checkOrderingWithPrices(actualPrices, "12.70", "19.00", "16.50", "6.61", "16.80", "9.85", "10.60", "16.10", "12.60", "19.10");
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.api.service;
 
 import com.api.entity.Price;
 import com.api.entity.Product;
+import com.api.projection.PriceWithInstant;
 import com.api.repository.PriceRepository;
 import org.apache.tomcat.util.digester.ObjectCreateRule;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +22,7 @@ import java.time.Month;
 import java.time.ZoneOffset;
 import java.util.*;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static java.time.Month.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -31,7 +33,7 @@ final class PriceServiceImplTest {
 
     private PriceRepository priceRepositoryMock;
     private PriceServiceImpl priceServiceUnderTest;
-    private CacheManager<Price, UUID> priceCacheManager;
+    private CacheManager<PriceWithInstant, UUID> priceCacheManager;
 
     @BeforeEach
     void setup() {
@@ -58,16 +60,16 @@ final class PriceServiceImplTest {
         @DisplayName("Should throw ResponseStatusException with NOT FOUND EXCEPTION")
         void when_id_does_not_exist_then_should_throw_an_exception() {
             final UUID nonExistentId = UUID.fromString("4843ca41-2532-4247-bae4-16e61b8108cc");
-            given(priceRepositoryMock.findById(eq(nonExistentId))).willReturn(Optional.empty());
-            given(priceCacheManager.sync(eq(nonExistentId.toString()), any(Supplier.class)))
+            given(priceRepositoryMock.findPriceWithInstantById(eq(nonExistentId))).willReturn(Optional.empty());
+            given(priceCacheManager.sync(eq("price-by-id:"+nonExistentId.toString()), any(Supplier.class)))
                 .willAnswer(invocation -> {
                     invocation.getArgument(1, Supplier.class).get();
                     throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Price not found");
                 });
-            given(priceCacheManager.containsKey(eq(nonExistentId.toString()))).willReturn(false);
+            given(priceCacheManager.containsKey(eq("price-by-id:"+nonExistentId.toString()))).willReturn(false);
 
             final Throwable actualThrowable = catchThrowable(() -> priceServiceUnderTest.findById(nonExistentId));
-            final boolean isCached = priceCacheManager.containsKey(nonExistentId.toString());
+            final boolean isCached = priceCacheManager.containsKey("price-by-id:"+nonExistentId.toString());
 
             assertThat(actualThrowable).isNotNull();
             assertThat(actualThrowable).isInstanceOf(ResponseStatusException.class);
@@ -77,9 +79,9 @@ final class PriceServiceImplTest {
             });
             assertThat(isCached).isFalse();
 
-            verify(priceRepositoryMock, times(1)).findById(eq(nonExistentId));
-            verify(priceCacheManager, times(1)).sync(eq(nonExistentId.toString()), any(Supplier.class));
-            verify(priceCacheManager, times(1)).containsKey(eq(nonExistentId.toString()));
+            verify(priceRepositoryMock, times(1)).findPriceWithInstantById(eq(nonExistentId));
+            verify(priceCacheManager, times(1)).sync(eq("price-by-id:"+nonExistentId.toString()), any(Supplier.class));
+            verify(priceCacheManager, times(1)).containsKey(eq("price-by-id:"+nonExistentId.toString()));
             verifyNoMoreInteractions(priceRepositoryMock, priceCacheManager);
         }
 
@@ -87,22 +89,22 @@ final class PriceServiceImplTest {
         @DisplayName("Should return a price successfully")
         void when_id_exists_then_should_return_a_price_successfully() {
             final UUID existingId = UUID.fromString("5b17f3d7-5fd7-4564-a994-23613d993a57");
-            final Price expectedPrice = Resources.LIST_OF_PRICES.get(0);
-            given(priceRepositoryMock.findById(eq(existingId))).willReturn(Optional.of(expectedPrice));
-            given(priceCacheManager.sync(eq(existingId.toString()), any(Supplier.class)))
+            final PriceWithInstant expectedPrice = Resources.LIST_OF_PRICES.get(0).toPriceWithInstant();
+            given(priceRepositoryMock.findPriceWithInstantById(eq(existingId))).willReturn(Optional.of(expectedPrice));
+            given(priceCacheManager.sync(eq("price-by-id:"+existingId.toString()), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
-            given(priceCacheManager.containsKey(eq(existingId.toString()))).willReturn(true);
+            given(priceCacheManager.containsKey(eq("price-by-id:"+existingId.toString()))).willReturn(true);
 
-            final Price actualPrice = priceServiceUnderTest.findById(existingId);
-            final boolean isCached = priceCacheManager.containsKey(existingId.toString());
+            final PriceWithInstant actualPrice = priceServiceUnderTest.findById(existingId);
+            final boolean isCached = priceCacheManager.containsKey("price-by-id:"+existingId.toString());
 
             assertThat(actualPrice).isNotNull();
             assertThat(actualPrice).isEqualTo(expectedPrice);
             assertThat(isCached).isTrue();
 
-            verify(priceRepositoryMock, times(1)).findById(eq(existingId));
-            verify(priceCacheManager, times(1)).containsKey(eq(existingId.toString()));
-            verify(priceCacheManager, times(1)).sync(eq(existingId.toString()), any(Supplier.class));
+            verify(priceRepositoryMock, times(1)).findPriceWithInstantById(eq(existingId));
+            verify(priceCacheManager, times(1)).containsKey(eq("price-by-id:"+existingId.toString()));
+            verify(priceCacheManager, times(1)).sync(eq("price-by-id:"+existingId.toString()), any(Supplier.class));
             verifyNoMoreInteractions(priceRepositoryMock, priceCacheManager);
         }
     }
@@ -143,27 +145,27 @@ final class PriceServiceImplTest {
             final Sort orderByInstantDesc = Sort.by("instant").descending();
             final List<Price> orderedPrices = new ArrayList<>(Resources.LIST_OF_PRICES);
             orderedPrices.sort(Resources.ORDER_BY_INSTANT_DESC);
-            given(priceRepositoryMock.findByProductBarcode(eq(BARCODE), eq(orderByInstantDesc)))
-                .willReturn(orderedPrices);
-            given(priceCacheManager.sync(eq(BARCODE+orderByInstantDesc), any(Supplier.class)))
+            given(priceRepositoryMock.findAllPricesWithInstantByProductBarcode(eq(BARCODE), eq(orderByInstantDesc)))
+                .willReturn(Resources.toPricesWithInstant(orderedPrices));
+            given(priceCacheManager.sync(eq("price-history:"+BARCODE+orderByInstantDesc), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
-            given(priceCacheManager.containsKey(eq(BARCODE+orderByInstantDesc))).willReturn(true);
+            given(priceCacheManager.containsKey(eq("price-history:"+BARCODE+orderByInstantDesc))).willReturn(true);
 
-            final List<Price> actualPrices = priceServiceUnderTest.findByProductBarcode(BARCODE, orderByInstantDesc);
-            final boolean cached = priceCacheManager.containsKey(BARCODE+orderByInstantDesc);
+            final List<PriceWithInstant> actualPrices = priceServiceUnderTest.findByProductBarcode(BARCODE, orderByInstantDesc);
+            final boolean cached = priceCacheManager.containsKey("price-history:"+BARCODE+orderByInstantDesc);
 
             assertThat(actualPrices).isNotNull();
             assertThat(actualPrices).hasSize(5);
             // Checking ordering
             assertThat(actualPrices)
-                .extracting(Price::getInstant)
+                .extracting(PriceWithInstant::getInstant)
                 .map(Resources::extractMonthFromInstant)
                 .containsExactly(MAY, APRIL, MARCH, FEBRUARY, JANUARY);
             assertThat(cached).isTrue();
 
-            verify(priceRepositoryMock, times(1)).findByProductBarcode(eq(BARCODE), eq(orderByInstantDesc));
-            verify(priceCacheManager, times(1)).sync(eq(BARCODE+orderByInstantDesc), any(Supplier.class));
-            verify(priceCacheManager, times(1)).containsKey(eq(BARCODE+orderByInstantDesc));
+            verify(priceRepositoryMock, times(1)).findAllPricesWithInstantByProductBarcode(eq(BARCODE), eq(orderByInstantDesc));
+            verify(priceCacheManager, times(1)).sync(eq("price-history:"+BARCODE+orderByInstantDesc), any(Supplier.class));
+            verify(priceCacheManager, times(1)).containsKey(eq("price-history:"+BARCODE+orderByInstantDesc));
             verifyNoMoreInteractions(priceRepositoryMock, priceCacheManager);
         }
 
@@ -172,8 +174,8 @@ final class PriceServiceImplTest {
         void when_product_barcode_does_not_exist_then_should_throw_an_exception() {
             final String nonExistentBarcode = "3817304916283";
             final Sort orderByInstantDesc = Sort.by("instant").descending();
-            final String key = nonExistentBarcode+orderByInstantDesc;
-            given(priceRepositoryMock.findByProductBarcode(eq(nonExistentBarcode), eq(orderByInstantDesc)))
+            final String key = "price-history:"+nonExistentBarcode+orderByInstantDesc;
+            given(priceRepositoryMock.findAllPricesWithInstantByProductBarcode(eq(nonExistentBarcode), eq(orderByInstantDesc)))
                 .willReturn(Collections.emptyList());
             given(priceCacheManager.sync(eq(key), any(Supplier.class)))
                 .willAnswer(invocation -> {
@@ -194,7 +196,7 @@ final class PriceServiceImplTest {
             });
             assertThat(cached).isFalse();
 
-            verify(priceRepositoryMock, times(1)).findByProductBarcode(eq(nonExistentBarcode), eq(orderByInstantDesc));
+            verify(priceRepositoryMock, times(1)).findAllPricesWithInstantByProductBarcode(eq(nonExistentBarcode), eq(orderByInstantDesc));
             verify(priceCacheManager, times(1)).sync(eq(key), any(Supplier.class));
             verify(priceCacheManager, times(1)).containsKey(eq(key));
             verifyNoMoreInteractions(priceRepositoryMock, priceCacheManager);
@@ -205,26 +207,26 @@ final class PriceServiceImplTest {
         void given_a_pageable_then_should_return_only_the_first_three_prices() {
             final Sort orderByInstantDesc = Sort.by("instant").descending();
             final Pageable theFirstThreePrices = PageRequest.of(0, 3).withSort(orderByInstantDesc);
-            final String key = BARCODE+"-pag=0-3";
+            final String key = "price-history:"+BARCODE+"-pag=0-3";
             final List<Price> expectedPrices = new ArrayList<>(Resources.LIST_OF_PRICES.subList(0, 3));
             expectedPrices.sort(Resources.ORDER_BY_INSTANT_DESC);
-            given(priceRepositoryMock.findByProductBarcode(eq(BARCODE), eq(theFirstThreePrices)))
-                .willReturn(expectedPrices);
+            given(priceRepositoryMock.findAllPricesWithInstantByProductBarcode(eq(BARCODE), eq(theFirstThreePrices)))
+                .willReturn(Resources.toPricesWithInstant(expectedPrices));
             given(priceCacheManager.sync(eq(key), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
             given(priceCacheManager.containsKey(eq(key))).willReturn(true);
 
-            final List<Price> actualPrices = priceServiceUnderTest.findByProductBarcode(BARCODE, theFirstThreePrices);
+            final List<PriceWithInstant> actualPrices = priceServiceUnderTest.findByProductBarcode(BARCODE, theFirstThreePrices);
             final boolean cached = priceCacheManager.containsKey(key);
 
             assertThat(actualPrices).hasSize(3);
             // Checking ordering
             assertThat(actualPrices)
-                .extracting(Price::getInstant)
+                .extracting(PriceWithInstant::getInstant)
                 .map(Resources::extractMonthFromInstant)
                 .containsExactly(APRIL, FEBRUARY, JANUARY);
 
-            verify(priceRepositoryMock, times(1)).findByProductBarcode(eq(BARCODE), eq(theFirstThreePrices));
+            verify(priceRepositoryMock, times(1)).findAllPricesWithInstantByProductBarcode(eq(BARCODE), eq(theFirstThreePrices));
             verify(priceCacheManager, times(1)).sync(eq(key), any(Supplier.class));
             verify(priceCacheManager, times(1)).containsKey(eq(key));
             verifyNoMoreInteractions(priceRepositoryMock, priceCacheManager);
@@ -241,6 +243,10 @@ final class PriceServiceImplTest {
             new Price(UUID.fromString("9229c9be-8af1-4e82-a0db-5e7f16388171"), new BigDecimal("2.47"), null, null)
         );
 
+        private static List<PriceWithInstant> toPricesWithInstant(final List<Price> prices) {
+            return prices.stream().map(Price::toPriceWithInstant).collect(Collectors.toList());
+        }
+
         private static Month extractMonthFromInstant(final Instant instant) {
             return instant.atOffset(ZoneOffset.UTC).getMonth();
         }
@@ -2,13 +2,21 @@ package com.api.service;
 
 import com.api.Resources;
 import com.api.entity.Product;
+import com.api.projection.CacheStatistics;
+import com.api.projection.LinkFamilyStatistics;
 import com.api.service.interfaces.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -95,6 +103,392 @@ public final class ProductCacheManagerTest {
         verify(productService, times(2)).findAllWithLatestPrice();
     }
 
+    @Test
+    void when_a_key_is_invalidated_then_should_evict_only_the_links_that_contain_it() {
+        productCacheManager.sync("first", () -> getProductsByIndexes(0, 1, 2));
+        productCacheManager.sync("second", () -> getProductsByIndexes(2, 3));
+        productCacheManager.sync("third", () -> getProductsByIndexes(4, 5));
+        final UUID refBeforeInvalidation = productCacheManager.getRef();
+
+        productCacheManager.invalidate(List.of(Resources.PRODUCTS_SAMPLE.get(2).getId()), link -> false);
+
+        assertThat(productCacheManager.containsKey("first")).isFalse();
+        assertThat(productCacheManager.containsKey("second")).isFalse();
+        assertThat(productCacheManager.containsKey("third")).isTrue();
+        assertThat(productCacheManager.getRef()).isNotEqualTo(refBeforeInvalidation);
+    }
+
+    @Test
+    void when_a_link_predicate_is_invalidated_then_should_evict_the_matching_links() {
+        productCacheManager.sync("listing:all-pag=0-2", () -> getProductsByIndexes(0, 1));
+        productCacheManager.sync("barcode:7891000055120", () -> getProductsByIndexes(0));
+
+        productCacheManager.invalidate(Collections.emptyList(), link -> link.startsWith("listing:"));
+
+        assertThat(productCacheManager.containsKey("listing:all-pag=0-2")).isFalse();
+        assertThat(productCacheManager.containsKey("barcode:7891000055120")).isTrue();
+    }
+
+    @Test
+    void when_an_invalidation_happens_while_loading_then_should_not_cache_the_loaded_data() {
+        final Optional<List<Product>> actualProducts = productCacheManager.sync("first", () -> {
+            productCacheManager.invalidate(List.of(Resources.PRODUCTS_SAMPLE.get(0).getId()), link -> false);
+            return getProductsByIndexes(0, 1);
+        });
+
+        assertThat(actualProducts).isPresent();
+        assertThat(productCacheManager.containsKey("first")).isFalse();
+    }
+
+    @Test
+    void when_maximum_weight_is_exceeded_then_should_evict_the_least_recently_used_links() {
+        productCacheManager = new CacheManager<>(Product::getId, CacheSettings.<Product>builder().maximumWeight(6).build());
+        productCacheManager.sync("first", () -> getProductsByIndexes(0, 1));
+        productCacheManager.sync("second", () -> getProductsByIndexes(2, 3));
+        productCacheManager.sync("third", () -> getProductsByIndexes(4, 5));
+        productCacheManager.sync("fourth", () -> getProductsByIndexes(6, 7));
+
+        assertThat(productCacheManager.containsKey("first")).isFalse();
+        assertThat(productCacheManager.containsKey("second")).isTrue();
+        assertThat(productCacheManager.containsKey("third")).isTrue();
+        assertThat(productCacheManager.containsKey("fourth")).isTrue();
+        assertThat(productCacheManager.getWeightedSize()).isEqualTo(6);
+    }
+
+    @Test
+    void when_maximum_weight_is_exceeded_then_should_keep_links_read_more_than_once() {
+        productCacheManager = new CacheManager<>(Product::getId, CacheSettings.<Product>builder().maximumWeight(6).build());
+        productCacheManager.sync("popular", () -> getProductsByIndexes(0, 1));
+        productCacheManager.sync("popular", Collections::emptyList);
+        for (int i = 0; i < 5; i++) {
+            final int index = i + 2;
+            productCacheManager.sync("crawler-"+i, () -> getProductsByIndexes(index));
+        }
+
+        assertThat(productCacheManager.containsKey("popular")).isTrue();
+        assertThat(productCacheManager.getWeightedSize()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void when_a_list_is_heavier_than_the_maximum_weight_then_should_not_cache_it() {
+        productCacheManager = new CacheManager<>(Product::getId, CacheSettings.<Product>builder().maximumWeight(2).build());
+
+        final Optional<List<Product>> actualProducts = productCacheManager.sync("heavy", () -> getProductsByIndexes(0, 1, 2));
+
+        assertThat(actualProducts).isPresent();
+        assertThat(actualProducts.get()).hasSize(3);
+        assertThat(productCacheManager.containsKey("heavy")).isFalse();
+    }
+
+    @Test
+    void should_record_hits_misses_loads_and_evictions_per_link_family() {
+        productCacheManager = new CacheManager<>(
+            Product::getId, CacheSettings.<Product>builder().name("products").maximumWeight(4).build()
+        );
+        productCacheManager.sync("barcode:first", () -> getProductsByIndexes(0));
+        productCacheManager.sync("barcode:first", () -> getProductsByIndexes(0));
+        productCacheManager.sync("listing:first", () -> getProductsByIndexes(1, 2));
+        productCacheManager.sync("listing:second", () -> getProductsByIndexes(3, 4));
+        catchThrowable(() -> productCacheManager.sync("contains:first", () -> {
+            throw new IllegalStateException("Database is down");
+        }));
+
+        final CacheStatistics actualStatistics = productCacheManager.getStatistics();
+
+        assertThat(actualStatistics.getName()).isEqualTo("products");
+        assertThat(actualStatistics.getEstimatedBytes()).isLessThanOrEqualTo(4);
+        assertThat(actualStatistics.getFamilies()).containsOnlyKeys("barcode", "listing", "contains");
+        assertThat(actualStatistics.getFamilies().get("barcode")).satisfies(barcode -> {
+            assertThat(barcode.getHits()).isEqualTo(1);
+            assertThat(barcode.getMisses()).isEqualTo(1);
+            assertThat(barcode.getHitRate()).isEqualTo(0.5);
+            assertThat(barcode.getLoads()).isEqualTo(1);
+        });
+        assertThat(actualStatistics.getFamilies().get("listing")).satisfies(listing -> {
+            assertThat(listing.getHits()).isZero();
+            assertThat(listing.getMisses()).isEqualTo(2);
+            assertThat(listing.getLoads()).isEqualTo(2);
+        });
+        assertThat(actualStatistics.getFamilies().get("contains").getLoadFailures()).isEqualTo(1);
+        assertThat(
+            actualStatistics.getFamilies().values().stream().mapToLong(LinkFamilyStatistics::getEvictions).sum()
+        ).isEqualTo(1);
+    }
+
+    @Test
+    void when_many_threads_miss_the_same_link_then_should_run_the_loader_only_once() throws Exception {
+        final int numberOfThreads = 16;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        final CountDownLatch loaderStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoader = new CountDownLatch(1);
+        final AtomicInteger numberOfLoads = new AtomicInteger();
+
+        final List<Future<Optional<List<Product>>>> futures = IntStream.range(0, numberOfThreads)
+            .mapToObj(thread -> executorService.submit(() -> productCacheManager.sync("products", () -> {
+                numberOfLoads.incrementAndGet();
+                loaderStarted.countDown();
+                awaitUninterruptibly(releaseLoader);
+                return getProductsByIndexes(0, 1, 2);
+            })))
+            .collect(Collectors.toList());
+
+        loaderStarted.await(10, TimeUnit.SECONDS);
+        TimeUnit.MILLISECONDS.sleep(100);
+        releaseLoader.countDown();
+        for (final Future<Optional<List<Product>>> future : futures)
+            assertThat(future.get(10, TimeUnit.SECONDS)).hasValueSatisfying(products -> assertThat(products).hasSize(3));
+        executorService.shutdown();
+
+        assertThat(numberOfLoads.get()).isOne();
+    }
+
+    @Test
+    void when_the_loader_fails_then_should_propagate_the_failure_to_waiters_and_not_cache_it() throws Exception {
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        final CountDownLatch loaderStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        final Future<Optional<List<Product>>> failingLoad = executorService.submit(() ->
+            productCacheManager.sync("products", () -> {
+                loaderStarted.countDown();
+                awaitUninterruptibly(releaseLoader);
+                throw new IllegalStateException("Database is down");
+            })
+        );
+        loaderStarted.await(10, TimeUnit.SECONDS);
+        final Throwable[] waiterThrowable = new Throwable[1];
+        final Thread waitingThread = new Thread(() -> waiterThrowable[0] =
+            catchThrowable(() -> productCacheManager.sync("products", () -> getProductsByIndexes(0))));
+        waitingThread.start();
+        TimeUnit.MILLISECONDS.sleep(100);
+        releaseLoader.countDown();
+        waitingThread.join(10_000);
+
+        assertThat(catchThrowable(() -> failingLoad.get(10, TimeUnit.SECONDS))).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(waiterThrowable[0]).isInstanceOf(IllegalStateException.class).hasMessage("Database is down");
+        assertThat(productCacheManager.containsKey("products")).isFalse();
+        assertThat(productCacheManager.sync("products", () -> getProductsByIndexes(0))).isPresent();
+        executorService.shutdown();
+    }
+
+    @Test
+    void when_an_entry_expires_then_should_load_it_again() {
+        final MutableClock clock = new MutableClock(Instant.parse("2022-07-20T10:00:00Z"));
+        productCacheManager = new CacheManager<>(Product::getId, CacheSettings.<Product>builder()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .clock(clock)
+            .build());
+        productCacheManager.sync("products", () -> getProductsByIndexes(0));
+
+        clock.advance(Duration.ofMinutes(11));
+        final Optional<List<Product>> actualProducts = productCacheManager.sync("products", () -> getProductsByIndexes(1));
+
+        assertThat(actualProducts).hasValueSatisfying(products -> assertThat(products).containsExactly(getProductsByIndexes(1).get(0)));
+    }
+
+    @Test
+    void when_the_daily_refresh_has_passed_then_should_serve_stale_data_and_refresh_it_in_background() {
+        final MutableClock clock = new MutableClock(Instant.parse("2022-07-20T07:00:00Z"));
+        productCacheManager = new CacheManager<>(Product::getId, CacheSettings.<Product>builder()
+            .dailyRefreshAt(LocalTime.of(5, 0))
+            .staleWhileRevalidate(true)
+            .clock(clock)
+            .refreshExecutor(Runnable::run)
+            .build());
+        productCacheManager.sync("products", () -> getProductsByIndexes(0));
+
+        clock.advance(Duration.ofHours(2));
+        final Optional<List<Product>> staleProducts = productCacheManager.sync("products", () -> getProductsByIndexes(1));
+        final Optional<List<Product>> refreshedProducts = productCacheManager.sync("products", () -> getProductsByIndexes(2));
+
+        assertThat(staleProducts).hasValueSatisfying(products -> assertThat(products).containsExactly(getProductsByIndexes(0).get(0)));
+        assertThat(refreshedProducts).hasValueSatisfying(products -> assertThat(products).containsExactly(getProductsByIndexes(1).get(0)));
+    }
+
+    @Test
+    void when_stale_while_revalidate_has_no_refresh_executor_then_should_not_be_created() {
+        final Throwable actualThrowable = catchThrowable(() -> new CacheManager<>(
+            Product::getId, CacheSettings.<Product>builder().staleWhileRevalidate(true).build()
+        ));
+
+        assertThat(actualThrowable).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void when_a_background_refresh_fails_then_should_keep_serving_the_stale_data() {
+        final MutableClock clock = new MutableClock(Instant.parse("2022-07-20T10:00:00Z"));
+        productCacheManager = new CacheManager<>(Product::getId, CacheSettings.<Product>builder()
+            .refreshAfterWrite(Duration.ofMinutes(5))
+            .staleWhileRevalidate(true)
+            .clock(clock)
+            .refreshExecutor(Runnable::run)
+            .build());
+        productCacheManager.sync("products", () -> getProductsByIndexes(0));
+
+        clock.advance(Duration.ofMinutes(6));
+        productCacheManager.sync("products", () -> { throw new IllegalStateException("Database is down"); });
+        final Optional<List<Product>> actualProducts = productCacheManager.sync("products", Collections::emptyList);
+
+        assertThat(actualProducts).hasValueSatisfying(products -> assertThat(products).containsExactly(getProductsByIndexes(0).get(0)));
+    }
+
+    @Test
+    void when_a_link_is_marked_missing_then_should_remember_it_until_its_time_to_live_ends() {
+        final MutableClock clock = new MutableClock(Instant.parse("2022-06-10T12:00:00Z"));
+        productCacheManager = new CacheManager<>(
+            Product::getId, CacheSettings.<Product>builder().negativeTimeToLive(Duration.ofMinutes(30)).clock(clock).build()
+        );
+        productCacheManager.markMissing("barcode:7891000055345");
+
+        assertThat(productCacheManager.isMarkedMissing("barcode:7891000055345")).isTrue();
+        assertThat(productCacheManager.isMarkedMissing("barcode:7891000055120")).isFalse();
+        assertThat(productCacheManager.getStatistics().getFamilies().get("barcode").getNegativeHits()).isEqualTo(1);
+
+        clock.advance(Duration.ofMinutes(30));
+
+        assertThat(productCacheManager.isMarkedMissing("barcode:7891000055345")).isFalse();
+    }
+
+    @Test
+    void when_the_negative_cache_is_full_or_invalidated_then_should_forget_missing_links() {
+        productCacheManager = new CacheManager<>(
+            Product::getId,
+            CacheSettings.<Product>builder().negativeTimeToLive(Duration.ofMinutes(30)).maximumNegativeLinks(2).build()
+        );
+        productCacheManager.markMissing("barcode:first");
+        productCacheManager.markMissing("barcode:second");
+        productCacheManager.markMissing("barcode:third");
+
+        assertThat(productCacheManager.isMarkedMissing("barcode:first")).isFalse();
+        assertThat(productCacheManager.isMarkedMissing("barcode:second")).isTrue();
+
+        productCacheManager.invalidate(Collections.emptyList(), link -> link.equals("barcode:second"));
+
+        assertThat(productCacheManager.isMarkedMissing("barcode:second")).isFalse();
+        assertThat(productCacheManager.isMarkedMissing("barcode:third")).isTrue();
+    }
+
+    @Test
+    void when_entries_are_restored_then_should_serve_them_and_keep_the_reverse_index() {
+        productCacheManager.sync("first", () -> getProductsByIndexes(0, 1));
+        productCacheManager.sync("second", () -> getProductsByIndexes(2));
+        final CacheManager<Product, UUID> restoredCacheManager = new CacheManager<>(Product::getId);
+        final UUID sharedRef = UUID.fromString("bbd074a4-e28b-46df-b10a-2fd55d11685b");
+
+        restoredCacheManager.restore(productCacheManager.getEntries(), sharedRef);
+
+        assertThat(restoredCacheManager.getRef()).isEqualTo(sharedRef);
+        assertThat(restoredCacheManager.sync("first", Collections::emptyList)).hasValueSatisfying(products ->
+            assertThat(products).extracting(Product::getDescription)
+                .containsExactly(Resources.PRODUCTS_SAMPLE.get(0).getDescription(), Resources.PRODUCTS_SAMPLE.get(1).getDescription())
+        );
+        restoredCacheManager.invalidate(List.of(Resources.PRODUCTS_SAMPLE.get(2).getId()), link -> false);
+        assertThat(restoredCacheManager.containsKey("first")).isTrue();
+        assertThat(restoredCacheManager.containsKey("second")).isFalse();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(final Instant instant) {
+            this.instant = instant;
+        }
+
+        private void advance(final Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void when_many_threads_sync_and_evict_concurrently_then_should_never_return_lost_or_torn_entries() throws Exception {
+        final int numberOfThreads = 8;
+        final int iterationsPerThread = 5_000;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final AtomicInteger numberOfInconsistencies = new AtomicInteger();
+
+        final List<Future<?>> futures = IntStream.range(0, numberOfThreads)
+            .mapToObj(thread -> executorService.submit(() -> {
+                startSignal.await();
+                final Random random = new Random(thread);
+                for (int i = 0; i < iterationsPerThread; i++) {
+                    final int linkIndex = random.nextInt(Resources.PRODUCTS_SAMPLE.size());
+                    final List<Product> expectedProducts = getProductsForLink(linkIndex);
+                    final Optional<List<Product>> actualProducts =
+                        productCacheManager.sync("link-"+linkIndex, () -> getProductsForLink(linkIndex));
+
+                    if (actualProducts.isEmpty() || !actualProducts.get().equals(expectedProducts))
+                        numberOfInconsistencies.incrementAndGet();
+                    if (i % 500 == 0) productCacheManager.evictAll();
+                }
+                return null;
+            }))
+            .collect(Collectors.toList());
+
+        startSignal.countDown();
+        for (final Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        executorService.shutdown();
+
+        assertThat(numberOfInconsistencies.get()).isZero();
+    }
+
+    @Test
+    void when_links_are_invalidated_while_being_written_then_should_not_leave_their_weight_behind() throws Exception {
+        final int numberOfThreads = 8;
+        final int iterationsPerThread = 5_000;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        final CountDownLatch startSignal = new CountDownLatch(1);
+
+        final List<Future<?>> futures = IntStream.range(0, numberOfThreads)
+            .mapToObj(thread -> executorService.submit(() -> {
+                startSignal.await();
+                final Random random = new Random(thread);
+                for (int i = 0; i < iterationsPerThread; i++) {
+                    final int linkIndex = random.nextInt(4);
+                    if (thread % 2 == 0) productCacheManager.sync("link-"+linkIndex, () -> getProductsForLink(linkIndex));
+                    else productCacheManager.invalidate(Collections.emptyList(), link -> link.equals("link-"+linkIndex));
+                }
+                return null;
+            }))
+            .collect(Collectors.toList());
+
+        startSignal.countDown();
+        for (final Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        executorService.shutdown();
+        productCacheManager.invalidate(Collections.emptyList(), link -> true);
+
+        assertThat(productCacheManager.getWeightedSize()).isZero();
+    }
+
+    private List<Product> getProductsForLink(final int linkIndex) {
+        return Resources.PRODUCTS_SAMPLE.subList(0, linkIndex + 1);
+    }
+
     private List<Product> getProductsByIndexes(final int ...indexes) {
         final Product[] productsToReturn = new Product[indexes.length];
         for (int i = 0; i < productsToReturn.length; i++)
@@ -0,0 +1,85 @@
+package com.api.service;
+
+import com.api.entity.Price;
+import com.api.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProductCacheSnapshotTest {
+
+    @TempDir
+    Path temporaryDirectory;
+
+    private Path snapshotPath;
+    private ProductCacheSnapshot productCacheSnapshotUnderTest;
+    private Product product;
+
+    @BeforeEach
+    void setup() {
+        snapshotPath = temporaryDirectory.resolve("product-cache.snapshot");
+        productCacheSnapshotUnderTest = new ProductCacheSnapshot(snapshotPath.toString(), true);
+        product = Product.builder()
+            .id(UUID.fromString("37a89eba-dd3b-4179-9538-d9e5f720fc11"))
+            .description("ACHOC PO NESCAU 800G")
+            .barcode("7891000055120")
+            .sequenceCode(29250)
+            .build();
+        product.addPrice(new Price(
+            UUID.fromString("5540ac81-43f9-490f-8b32-e522c9d9ea9e"),
+            new BigDecimal("9.90"),
+            Instant.parse("2022-06-10T08:00:00.123Z"),
+            null
+        ));
+    }
+
+    @Test
+    void when_the_database_marker_matches_then_should_restore_every_link_and_its_products() {
+        productCacheSnapshotUnderTest.write("16384:42", List.of(
+            new CacheEntry<>("barcode:7891000055120", List.of(product), 1_000L),
+            new CacheEntry<>("latest-price", List.of(product), 2_000L)
+        ));
+
+        final Optional<List<CacheEntry<Product>>> actualEntries = productCacheSnapshotUnderTest.read("16384:42");
+
+        assertThat(actualEntries).isPresent();
+        assertThat(actualEntries.get()).extracting(CacheEntry::getLink).containsExactly("barcode:7891000055120", "latest-price");
+        assertThat(actualEntries.get()).extracting(CacheEntry::getWrittenAt).containsExactly(1_000L, 2_000L);
+        assertThat(actualEntries.get().get(1).getTargets()).singleElement().satisfies(actualProduct -> {
+            assertThat(actualProduct.getId()).isEqualTo(product.getId());
+            assertThat(actualProduct).isEqualTo(product);
+            assertThat(actualProduct.getPrices()).singleElement().satisfies(price -> {
+                assertThat(price.getValue()).isEqualByComparingTo("9.90");
+                assertThat(price.getInstant()).isEqualTo(Instant.parse("2022-06-10T08:00:00.123Z"));
+            });
+        });
+    }
+
+    @Test
+    void when_the_database_moved_on_then_should_discard_the_snapshot() {
+        productCacheSnapshotUnderTest.write("16384:42", List.of(new CacheEntry<>("latest-price", List.of(product), 1_000L)));
+
+        final Optional<List<CacheEntry<Product>>> actualEntries = productCacheSnapshotUnderTest.read("16384:43");
+
+        assertThat(actualEntries).isEmpty();
+        assertThat(Files.exists(snapshotPath)).isFalse();
+    }
+
+    @Test
+    void when_the_snapshot_is_corrupted_then_should_discard_it() throws Exception {
+        Files.write(snapshotPath, new byte[] {0x53, 0x41, 0x56});
+
+        assertThat(productCacheSnapshotUnderTest.read("16384:42")).isEmpty();
+        assertThat(Files.exists(snapshotPath)).isFalse();
+    }
+}
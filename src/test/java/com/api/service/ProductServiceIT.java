@@ -19,7 +19,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,6 +39,9 @@ public class ProductServiceIT {
     @Autowired
     private PriceRepository priceRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Nested
     class GetByBarcodeAndSaveIfNecessaryTest {
 
@@ -121,6 +126,47 @@ public class ProductServiceIT {
             assertThat(actualProductList).hasSize(16);
             assertThat(actualProductList).extracting(Product::getPrices)
                 .allMatch(prices -> prices.size() == 1);
+            assertThat(actualProductList)
+                .allMatch(product -> product.getPrices().get(0).getId().equals(product.getLatestPrice().getId()));
+        }
+
+        @Test
+        @DisplayName("Should point a product to the newest of its prices")
+        @Transactional
+        void should_point_a_product_to_the_newest_of_its_prices() {
+            final Product product = productRepository.findByBarcode("7896004004501").orElseThrow();
+
+            productServiceUnderTest.save(product.addPrice(new Price(new BigDecimal("7.49"))));
+            entityManager.flush();
+            entityManager.clear();
+
+            assertThat(productRepository.findAllWithLastPrice())
+                .filteredOn(actualProduct -> actualProduct.getBarcode().equals("7896004004501"))
+                .singleElement()
+                .satisfies(actualProduct -> {
+                    assertThat(actualProduct.getLatestPrice().getValue()).isEqualByComparingTo("7.49");
+                    assertThat(actualProduct.getPrices()).singleElement().isSameAs(actualProduct.getLatestPrice());
+                });
+        }
+
+        @Test
+        @DisplayName("Should only date a product by changes to what it lists")
+        @Transactional
+        void should_only_date_a_product_by_changes_to_what_it_lists() {
+            final Instant updatedAt = productRepository.findUpdatedAtByBarcode("7896004004501").orElseThrow();
+            final Product product = productRepository.findByBarcode("7896004004501").orElseThrow();
+
+            productServiceUnderTest.save(product.addPrice(new Price(new BigDecimal("7.49"))));
+            entityManager.flush();
+            final Instant updatedAtAfterPricing = productRepository.findUpdatedAtByBarcode("7896004004501").orElseThrow();
+
+            product.setDescription(product.getDescription()+" NOVO");
+            productServiceUnderTest.save(product);
+            entityManager.flush();
+            final Instant updatedAtAfterRenaming = productRepository.findUpdatedAtByBarcode("7896004004501").orElseThrow();
+
+            assertThat(updatedAtAfterPricing).isEqualTo(updatedAt);
+            assertThat(updatedAtAfterRenaming).isAfter(updatedAt);
         }
 
         @Test
@@ -6,15 +6,21 @@ import com.api.projection.SimpleProductWithStatus;
 import com.api.repository.ProductRepository;
 import com.api.service.interfaces.ProductExternalService;
 import com.api.service.interfaces.ProductService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -29,24 +35,50 @@ public class ProductServiceTest {
     private ProductRepository productRepositoryMock;
     private ProductExternalService productExternalServiceMock;
     private CacheManager<Product, UUID> productCacheManager;
+    private CacheInvalidationBus cacheInvalidationBus;
+    private QueryHistory queryHistory;
+    private CountCache countCache;
+    private ExecutorService upstreamExecutor;
 
     @BeforeEach
     void setup() {
+        upstreamExecutor = Executors.newFixedThreadPool(2);
         productExternalServiceMock = mock(ProductExternalService.class);
         productRepositoryMock = mock(ProductRepository.class);
         productCacheManager = mock(CacheManager.class);
-        productServiceUnderTest = new ProductServiceImpl(productRepositoryMock, productExternalServiceMock, productCacheManager);
+        cacheInvalidationBus = mock(CacheInvalidationBus.class);
+        queryHistory = new QueryHistory();
+        countCache = new CountCache();
+        productServiceUnderTest = new ProductServiceImpl(
+            productRepositoryMock,
+            productExternalServiceMock,
+            productCacheManager,
+            cacheInvalidationBus,
+            queryHistory,
+            new DescriptionIndex(productRepositoryMock, false),
+            new DescriptionSearch(productRepositoryMock, DescriptionSearch.Mode.LIKE),
+            countCache,
+            upstreamExecutor,
+            mock(ProductExporter.class),
+            new TransactionTemplate(mock(PlatformTransactionManager.class))
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreamExecutor.shutdownNow();
     }
 
     @Nested
     class GetByBarcodeAndSaveIfNecessaryTest {
 
         private final String BARCODE = "7891000055120";
+        private final String BARCODE_LINK = "barcode:"+BARCODE;
         private final Product EXPECTED_PRODUCT = Resources.PRODUCTS_SAMPLE.get(0);
 
         @BeforeEach
         void mock_to_clean_cache() {
-            willDoNothing().given(productCacheManager).evictAll();
+            willDoNothing().given(cacheInvalidationBus).publish(any(Product.class), anyBoolean());
         }
 
         @Test
@@ -67,20 +99,21 @@ public class ProductServiceTest {
         @DisplayName("Should return a product from db")
         void when_a_product_exist_in_db_then_should_return_it() {
             given(productRepositoryMock.findByBarcode(eq(BARCODE))).willReturn(Optional.of(EXPECTED_PRODUCT));
-            given(productCacheManager.containsKey(eq(BARCODE))).willReturn(true);
-            given(productCacheManager.sync(eq(BARCODE), any(Supplier.class)))
+            given(productCacheManager.containsKey(eq(BARCODE_LINK))).willReturn(true);
+            given(productCacheManager.sync(eq(BARCODE_LINK), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
 
             final SimpleProductWithStatus actualSimpleProductWithStatus =
                 productServiceUnderTest.getByBarcodeAndSaveIfNecessary(BARCODE);
-            final boolean isCached = productCacheManager.containsKey(BARCODE);
+            final boolean isCached = productCacheManager.containsKey(BARCODE_LINK);
 
             checkProductWithHttpStatus(actualSimpleProductWithStatus, HttpStatus.OK);
             assertThat(isCached).isTrue();
 
             verify(productRepositoryMock, times(1)).findByBarcode(eq(BARCODE));
-            verify(productCacheManager, times(1)).sync(eq(BARCODE), any(Supplier.class));
-            verify(productCacheManager, times(1)).containsKey(eq(BARCODE));
+            verify(productCacheManager, times(1)).isMarkedMissing(eq(BARCODE_LINK));
+            verify(productCacheManager, times(1)).sync(eq(BARCODE_LINK), any(Supplier.class));
+            verify(productCacheManager, times(1)).containsKey(eq(BARCODE_LINK));
             verifyNoMoreInteractions(productRepositoryMock, productCacheManager);
             verifyNoInteractions(productExternalServiceMock);
         }
@@ -90,17 +123,17 @@ public class ProductServiceTest {
         void when_a_product_does_not_exist_in_db_then_should_return_from_an_external_api() {
             given(productRepositoryMock.findByBarcode(eq(BARCODE))).willReturn(Optional.empty());
             given(productExternalServiceMock.fetchByBarcode(eq(BARCODE))).willReturn(Optional.of(EXPECTED_PRODUCT));
-            given(productCacheManager.containsKey(eq(BARCODE))).willReturn(false);
+            given(productCacheManager.containsKey(eq(BARCODE_LINK))).willReturn(false);
             given(productRepositoryMock.save(eq(EXPECTED_PRODUCT)))
                 .willAnswer(answer -> answer.getArgument(0, Product.class));
-            given(productCacheManager.sync(eq(BARCODE), any(Supplier.class)))
+            given(productCacheManager.sync(eq(BARCODE_LINK), any(Supplier.class)))
                 .willAnswer(invocation ->
                     Optional.of(invocation.getArgument(1, Supplier.class).get()).map(v -> null)
                 );
 
             final SimpleProductWithStatus actualSimpleProductWithStatus =
                 productServiceUnderTest.getByBarcodeAndSaveIfNecessary(BARCODE);
-            final boolean isCached = productCacheManager.containsKey(BARCODE);
+            final boolean isCached = productCacheManager.containsKey(BARCODE_LINK);
 
             checkProductWithHttpStatus(actualSimpleProductWithStatus, HttpStatus.CREATED);
             assertThat(isCached).isFalse();
@@ -108,27 +141,29 @@ public class ProductServiceTest {
             verify(productRepositoryMock, times(1)).findByBarcode(eq(BARCODE));
             verify(productExternalServiceMock, times(1)).fetchByBarcode(eq(BARCODE));
             verify(productRepositoryMock, times(1)).save(eq(EXPECTED_PRODUCT));
-            verify(productCacheManager, times(1)).sync(eq(BARCODE), any(Supplier.class));
-            verify(productCacheManager, times(1)).evictAll();
-            verify(productCacheManager, times(1)).containsKey(eq(BARCODE));
-            verifyNoMoreInteractions(productRepositoryMock, productExternalServiceMock, productCacheManager);
+            verify(productCacheManager, times(1)).isMarkedMissing(eq(BARCODE_LINK));
+            verify(productCacheManager, times(1)).sync(eq(BARCODE_LINK), any(Supplier.class));
+            verify(cacheInvalidationBus, times(1)).publish(eq(EXPECTED_PRODUCT), anyBoolean());
+            verify(productCacheManager, times(1)).containsKey(eq(BARCODE_LINK));
+            verifyNoMoreInteractions(productRepositoryMock, productExternalServiceMock, productCacheManager, cacheInvalidationBus);
         }
 
         @Test
         @DisplayName("Should throw an ResponseStatusException | NOT FOUND")
         void when_a_product_is_not_found_then_should_throw_an_exception() {
             final String nonExistentBarcode = "7891000055345";
+            final String nonExistentBarcodeLink = "barcode:"+nonExistentBarcode;
             given(productRepositoryMock.findByBarcode(eq(nonExistentBarcode))).willReturn(Optional.empty());
             given(productExternalServiceMock.fetchByBarcode(eq(nonExistentBarcode))).willReturn(Optional.empty());
-            given(productCacheManager.sync(eq(nonExistentBarcode), any(Supplier.class)))
+            given(productCacheManager.sync(eq(nonExistentBarcodeLink), any(Supplier.class)))
                 .willAnswer(invocation ->
                     Optional.of(invocation.getArgument(1, Supplier.class).get()).map(v -> null)
                 );
-            given(productCacheManager.containsKey(eq(nonExistentBarcode))).willReturn(false);
+            given(productCacheManager.containsKey(eq(nonExistentBarcodeLink))).willReturn(false);
 
             final Throwable actualThrowable =
                 catchThrowable(() -> productServiceUnderTest.getByBarcodeAndSaveIfNecessary(nonExistentBarcode));
-            final boolean isCached = productCacheManager.containsKey(nonExistentBarcode);
+            final boolean isCached = productCacheManager.containsKey(nonExistentBarcodeLink);
 
             assertThat(actualThrowable).isNotNull();
             assertThat(actualThrowable).isInstanceOf(ResponseStatusException.class);
@@ -140,11 +175,31 @@ public class ProductServiceTest {
 
             verify(productRepositoryMock, times(1)).findByBarcode(eq(nonExistentBarcode));
             verify(productExternalServiceMock, times(1)).fetchByBarcode(eq(nonExistentBarcode));
-            verify(productCacheManager, times(1)).sync(eq(nonExistentBarcode), any(Supplier.class));
-            verify(productCacheManager, times(1)).containsKey(eq(nonExistentBarcode));
+            verify(productCacheManager, times(1)).isMarkedMissing(eq(nonExistentBarcodeLink));
+            verify(productCacheManager, times(1)).sync(eq(nonExistentBarcodeLink), any(Supplier.class));
+            verify(productCacheManager, times(1)).markMissing(eq(nonExistentBarcodeLink));
+            verify(productCacheManager, times(1)).containsKey(eq(nonExistentBarcodeLink));
             verifyNoMoreInteractions(productRepositoryMock, productExternalServiceMock, productCacheManager);
         }
 
+        @Test
+        @DisplayName("Should throw an ResponseStatusException | NOT FOUND without looking it up again")
+        void when_a_barcode_is_marked_as_missing_then_should_throw_an_exception_without_any_lookup() {
+            final String nonExistentBarcode = "7891000055345";
+            final String nonExistentBarcodeLink = "barcode:"+nonExistentBarcode;
+            given(productCacheManager.isMarkedMissing(eq(nonExistentBarcodeLink))).willReturn(true);
+
+            final Throwable actualThrowable =
+                catchThrowable(() -> productServiceUnderTest.getByBarcodeAndSaveIfNecessary(nonExistentBarcode));
+
+            assertThat(actualThrowable).isInstanceOf(ResponseStatusException.class);
+            assertThat(((ResponseStatusException) actualThrowable).getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+
+            verify(productCacheManager, times(1)).isMarkedMissing(eq(nonExistentBarcodeLink));
+            verifyNoMoreInteractions(productCacheManager);
+            verifyNoInteractions(productRepositoryMock, productExternalServiceMock);
+        }
+
         private void checkProductWithHttpStatus(final SimpleProductWithStatus simpleProductWithStatus, final HttpStatus httpStatus) {
             assertThat(simpleProductWithStatus).isNotNull();
             assertThat(simpleProductWithStatus.getHttpStatus()).isEqualTo(httpStatus);
@@ -156,10 +211,86 @@ public class ProductServiceTest {
         }
     }
 
+    @Nested
+    class GetAllByBarcodeAndSaveIfNecessaryTest {
+
+        private final Product KNOWN_PRODUCT = Resources.PRODUCTS_SAMPLE.get(0);
+        private final Product UPSTREAM_PRODUCT = Resources.PRODUCTS_SAMPLE.get(1);
+        private final String NON_EXISTENT_BARCODE = "7891000055345";
+
+        @Test
+        @DisplayName("Should resolve the known barcodes at once and only fetch the others")
+        void when_some_barcodes_are_unknown_then_should_fetch_only_those_and_save_them_together() {
+            given(productRepositoryMock.findAllByBarcodeIn(anyCollection())).willReturn(List.of(KNOWN_PRODUCT));
+            given(productExternalServiceMock.fetchByBarcode(eq(UPSTREAM_PRODUCT.getBarcode())))
+                .willReturn(Optional.of(UPSTREAM_PRODUCT));
+            given(productExternalServiceMock.fetchByBarcode(eq(NON_EXISTENT_BARCODE))).willReturn(Optional.empty());
+
+            final Map<String, SimpleProductWithStatus> actualLookups = productServiceUnderTest.getAllByBarcodeAndSaveIfNecessary(
+                List.of(KNOWN_PRODUCT.getBarcode(), UPSTREAM_PRODUCT.getBarcode(), NON_EXISTENT_BARCODE, KNOWN_PRODUCT.getBarcode())
+            );
+
+            assertThat(actualLookups).containsOnlyKeys(KNOWN_PRODUCT.getBarcode(), UPSTREAM_PRODUCT.getBarcode(), NON_EXISTENT_BARCODE);
+            assertThat(actualLookups.values()).extracting(SimpleProductWithStatus::getHttpStatus)
+                .containsExactly(HttpStatus.OK, HttpStatus.CREATED, HttpStatus.NOT_FOUND);
+            assertThat(actualLookups.get(UPSTREAM_PRODUCT.getBarcode()).getSimpleProduct().getDescription())
+                .isEqualTo(UPSTREAM_PRODUCT.getDescription());
+            assertThat(actualLookups.get(NON_EXISTENT_BARCODE).getSimpleProduct()).isNull();
+
+            verify(productRepositoryMock, times(1)).findAllByBarcodeIn(
+                eq(List.of(KNOWN_PRODUCT.getBarcode(), UPSTREAM_PRODUCT.getBarcode(), NON_EXISTENT_BARCODE))
+            );
+            verify(productRepositoryMock, times(1)).saveAll(eq(List.of(UPSTREAM_PRODUCT)));
+            verify(cacheInvalidationBus, times(1)).publish(eq(UPSTREAM_PRODUCT), eq(true));
+            verify(productCacheManager, times(1)).markMissing(eq("barcode:"+NON_EXISTENT_BARCODE));
+            verify(productExternalServiceMock, never()).fetchByBarcode(eq(KNOWN_PRODUCT.getBarcode()));
+            verifyNoMoreInteractions(productRepositoryMock, cacheInvalidationBus);
+        }
+
+        @Test
+        @DisplayName("Should save row by row when another request inserted one of the barcodes first")
+        void when_the_batch_conflicts_with_a_concurrent_insert_then_should_save_each_row_on_its_own() {
+            final Product otherUpstreamProduct = Resources.PRODUCTS_SAMPLE.get(2);
+            given(productRepositoryMock.findAllByBarcodeIn(anyCollection())).willReturn(List.of());
+            given(productExternalServiceMock.fetchByBarcode(eq(UPSTREAM_PRODUCT.getBarcode())))
+                .willReturn(Optional.of(UPSTREAM_PRODUCT));
+            given(productExternalServiceMock.fetchByBarcode(eq(otherUpstreamProduct.getBarcode())))
+                .willReturn(Optional.of(otherUpstreamProduct));
+            given(productRepositoryMock.saveAll(anyList())).willThrow(new DataIntegrityViolationException("uk_barcode"));
+            given(productRepositoryMock.save(eq(UPSTREAM_PRODUCT))).willThrow(new DataIntegrityViolationException("uk_barcode"));
+            given(productRepositoryMock.findByBarcode(eq(UPSTREAM_PRODUCT.getBarcode()))).willReturn(Optional.of(UPSTREAM_PRODUCT));
+
+            final Map<String, SimpleProductWithStatus> actualLookups = productServiceUnderTest.getAllByBarcodeAndSaveIfNecessary(
+                List.of(UPSTREAM_PRODUCT.getBarcode(), otherUpstreamProduct.getBarcode())
+            );
+
+            assertThat(actualLookups.values()).extracting(SimpleProductWithStatus::getHttpStatus)
+                .containsExactly(HttpStatus.OK, HttpStatus.CREATED);
+
+            verify(productRepositoryMock, times(1)).save(eq(UPSTREAM_PRODUCT));
+            verify(productRepositoryMock, times(1)).save(eq(otherUpstreamProduct));
+            verify(cacheInvalidationBus, times(1)).publish(eq(otherUpstreamProduct), eq(true));
+            verifyNoMoreInteractions(cacheInvalidationBus);
+        }
+
+        @Test
+        @DisplayName("Should answer the barcodes marked as missing without any lookup")
+        void when_every_barcode_is_marked_as_missing_then_should_neither_query_nor_fetch() {
+            given(productCacheManager.isMarkedMissing(eq("barcode:"+NON_EXISTENT_BARCODE))).willReturn(true);
+
+            final Map<String, SimpleProductWithStatus> actualLookups =
+                productServiceUnderTest.getAllByBarcodeAndSaveIfNecessary(List.of(NON_EXISTENT_BARCODE));
+
+            assertThat(actualLookups.get(NON_EXISTENT_BARCODE).getHttpStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+
+            verifyNoInteractions(productRepositoryMock, productExternalServiceMock, cacheInvalidationBus);
+        }
+    }
+
     @Test
     @DisplayName("Should return all products available")
     void should_return_all_products_available() {
-        final String key = "withLatestPrice";
+        final String key = "latest-price";
         given(productRepositoryMock.findAllWithLastPrice()).willReturn(Resources.PRODUCTS_SAMPLE);
         given(productCacheManager.sync(eq(key), any(Supplier.class)))
             .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
@@ -193,9 +324,9 @@ public class ProductServiceTest {
         @DisplayName("Should return all products ordered by its description")
         void should_return_all_products_ordered_by_its_description() {
             given(productRepositoryMock.findAll(eq(ORDER_BY_SEQUENCE_CODE))).willReturn(ORDERED_LIST);
-            given(productCacheManager.sync(eq(ORDER_BY_SEQUENCE_CODE.toString()), any(Supplier.class)))
+            given(productCacheManager.sync(eq("listing:"+ORDER_BY_SEQUENCE_CODE), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
-            given(productCacheManager.containsKey(eq(ORDER_BY_SEQUENCE_CODE.toString()))).willReturn(true);
+            given(productCacheManager.containsKey(eq("listing:"+ORDER_BY_SEQUENCE_CODE))).willReturn(true);
 
             List<Product> actualList = productServiceUnderTest.findAll(ORDER_BY_SEQUENCE_CODE);
             final Integer[] expectedSequenceCodes = new Integer[] {
@@ -205,15 +336,15 @@ public class ProductServiceTest {
                 5648, 30881, 25336, 6367,
                 128177, 125017
             };
-            final boolean isCached = productCacheManager.containsKey(ORDER_BY_SEQUENCE_CODE.toString());
+            final boolean isCached = productCacheManager.containsKey("listing:"+ORDER_BY_SEQUENCE_CODE);
 
             assertThat(actualList).hasSize(18);
             assertThat(isCached).isTrue();
             checkSortingWithSequenceCode(actualList, expectedSequenceCodes);
 
             verify(productRepositoryMock, times(1)).findAll(eq(ORDER_BY_SEQUENCE_CODE));
-            verify(productCacheManager, times(1)).sync(eq(ORDER_BY_SEQUENCE_CODE.toString()), any(Supplier.class));
-            verify(productCacheManager, times(1)).containsKey(eq(ORDER_BY_SEQUENCE_CODE.toString()));
+            verify(productCacheManager, times(1)).sync(eq("listing:"+ORDER_BY_SEQUENCE_CODE), any(Supplier.class));
+            verify(productCacheManager, times(1)).containsKey(eq("listing:"+ORDER_BY_SEQUENCE_CODE));
             verifyNoMoreInteractions(productRepositoryMock, productCacheManager);
             verifyNoInteractions(productExternalServiceMock);
         }
@@ -222,7 +353,7 @@ public class ProductServiceTest {
         @DisplayName("Should return a page with the first two products")
         void should_return_a_page_with_the_first_two_products_ordered_by_its_sequence_code() {
             final Pageable pageWithTwoProducts = PageRequest.of(0, 2).withSort(ORDER_BY_SEQUENCE_CODE);
-            final String key = "pag=0-2";
+            final String key = "listing:all-pag=0-2";
             final List<Product> theFistTwoProducts = ORDERED_LIST.subList(0, 2);
             given(productRepositoryMock.findAll(eq(pageWithTwoProducts)))
                 .willReturn(Utility.createPage(theFistTwoProducts));
@@ -263,12 +394,12 @@ public class ProductServiceTest {
         @DisplayName("Should return a page with three products that contain 500g")
         void should_return_a_page_with_three_products_that_contain_500g() {
             final String expressionToLookFor = "500g";
-            final String key = expressionToLookFor+"-pag=0-3";
+            final String key = "contains:"+expressionToLookFor+"-pag=0-3";
             final Pageable theFirstPageWithThreeProducts = PageRequest.of(0, 3, ORDER_BY_SEQUENCE_CODE_DESC);
             given(productCacheManager.sync(eq(key), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
             given(productCacheManager.containsKey(eq(key))).willReturn(true);
-            given(productRepositoryMock.findAllByDescriptionIgnoreCaseContaining(eq(expressionToLookFor), eq(theFirstPageWithThreeProducts)))
+            given(productRepositoryMock.findAllBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theFirstPageWithThreeProducts)))
                 .willReturn(Utility.createPage(Utility.getAllContaining()));
 
             final Page<Product> actualPage =
@@ -281,7 +412,7 @@ public class ProductServiceTest {
             assertThat(isCached).isTrue();
 
             verify(productRepositoryMock, times(1))
-                .findAllByDescriptionIgnoreCaseContaining(eq(expressionToLookFor), eq(theFirstPageWithThreeProducts));
+                .findAllBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theFirstPageWithThreeProducts));
             verify(productCacheManager, times(1)).sync(eq(key), any(Supplier.class));
             verify(productCacheManager, times(1)).containsKey(eq(key));
             verifyNoMoreInteractions(productRepositoryMock, productCacheManager);
@@ -312,11 +443,11 @@ public class ProductServiceTest {
         @DisplayName("When contains doesn't match anything then should return an empty list")
         void when_contains_does_not_match_anything_then_should_return_an_empty_list() {
             final String expressionToLookFor = "fruit";
-            final String key = expressionToLookFor+"-pag=0-3";
+            final String key = "contains:"+expressionToLookFor+"-pag=0-3";
             final Pageable theFirstPageWithThreeProducts = PageRequest.of(0, 3, ORDER_BY_SEQUENCE_CODE_DESC);
             given(productCacheManager.sync(eq(key), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
-            given(productRepositoryMock.findAllByDescriptionIgnoreCaseContaining(eq(expressionToLookFor), eq(theFirstPageWithThreeProducts)))
+            given(productRepositoryMock.findAllBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theFirstPageWithThreeProducts)))
                 .willReturn(Utility.createPage(Collections.emptyList()));
             given(productCacheManager.containsKey(eq(key))).willReturn(false);
 
@@ -329,12 +460,108 @@ public class ProductServiceTest {
             assertThat(isCached).isFalse();
 
             verify(productRepositoryMock, times(1))
-                .findAllByDescriptionIgnoreCaseContaining(eq(expressionToLookFor), eq(theFirstPageWithThreeProducts));
+                .findAllBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theFirstPageWithThreeProducts));
             verify(productCacheManager, times(1)).containsKey(eq(key));
             verify(productCacheManager, times(1)).sync(eq(key), any(Supplier.class));
             verifyNoMoreInteractions(productRepositoryMock, productCacheManager);
             verifyNoInteractions(productExternalServiceMock);
         }
+
+        @Test
+        @DisplayName("Should not keep a count queried before an invalidation")
+        void when_an_invalidation_lands_while_counting_then_should_not_keep_the_count() {
+            final String expressionToLookFor = "500g";
+            final Pageable theFirstPage = PageRequest.of(0, 2, ORDER_BY_SEQUENCE_CODE_DESC);
+            final List<Product> allContaining = Utility.getAllContaining();
+            given(productCacheManager.sync(anyString(), any(Supplier.class)))
+                .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
+            // A product inserted meanwhile commits and is applied by the bus after the count was read
+            given(productRepositoryMock.findAllBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theFirstPage)))
+                .willAnswer(invocation -> {
+                    final Page<Product> countedPage = new PageImpl<>(allContaining.subList(0, 2), theFirstPage, allContaining.size());
+                    countCache.invalidate(link -> true);
+                    return countedPage;
+                });
+
+            final Page<Product> actualPage =
+                productServiceUnderTest.findAllByDescriptionIgnoreCaseContaining(expressionToLookFor, theFirstPage);
+
+            assertThat(actualPage.getTotalElements()).isEqualTo(allContaining.size());
+            assertThat(countCache.get("contains:"+expressionToLookFor)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should count only along with the first page of an expression")
+        void when_a_later_page_is_requested_then_should_reuse_the_count_of_the_first_one() {
+            final String expressionToLookFor = "500g";
+            final Pageable theFirstPage = PageRequest.of(0, 2, ORDER_BY_SEQUENCE_CODE_DESC);
+            final Pageable theSecondPage = PageRequest.of(1, 2, ORDER_BY_SEQUENCE_CODE_DESC);
+            final List<Product> allContaining = Utility.getAllContaining();
+            given(productCacheManager.sync(anyString(), any(Supplier.class)))
+                .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
+            given(productRepositoryMock.findAllBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theFirstPage)))
+                .willReturn(new PageImpl<>(allContaining.subList(0, 2), theFirstPage, allContaining.size()));
+            given(productRepositoryMock.findSliceBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theSecondPage)))
+                .willReturn(new SliceImpl<>(allContaining.subList(2, 3), theSecondPage, false));
+
+            productServiceUnderTest.findAllByDescriptionIgnoreCaseContaining(expressionToLookFor, theFirstPage);
+            final Page<Product> actualPage =
+                productServiceUnderTest.findAllByDescriptionIgnoreCaseContaining(expressionToLookFor, theSecondPage);
+
+            assertThat(actualPage.getContent()).extracting(Product::getSequenceCode).containsExactly(128177);
+            assertThat(actualPage.getTotalElements()).isEqualTo(3);
+            assertThat(actualPage.hasNext()).isFalse();
+
+            verify(productRepositoryMock, times(1))
+                .findAllBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theFirstPage));
+            verify(productRepositoryMock, times(1))
+                .findSliceBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theSecondPage));
+            verifyNoMoreInteractions(productRepositoryMock);
+        }
+
+        @Test
+        @DisplayName("Should not count at all when totals aren't wanted")
+        void when_a_slice_is_requested_then_should_never_count() {
+            final String expressionToLookFor = "500g";
+            final Pageable theFirstPage = PageRequest.of(0, 2, ORDER_BY_SEQUENCE_CODE_DESC);
+            given(productCacheManager.sync(anyString(), any(Supplier.class)))
+                .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
+            given(productRepositoryMock.findSliceBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theFirstPage)))
+                .willReturn(new SliceImpl<>(Utility.getAllContaining().subList(0, 2), theFirstPage, true));
+
+            final Slice<Product> actualSlice =
+                productServiceUnderTest.findSliceByDescriptionIgnoreCaseContaining(expressionToLookFor, theFirstPage);
+
+            assertThat(actualSlice).isNotInstanceOf(Page.class);
+            assertThat(actualSlice.getContent()).hasSize(2);
+            assertThat(actualSlice.hasNext()).isTrue();
+
+            verify(productRepositoryMock, times(1))
+                .findSliceBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theFirstPage));
+            verifyNoMoreInteractions(productRepositoryMock);
+        }
+
+        @Test
+        @DisplayName("Should not link past a cached full slice that ends the results")
+        void when_a_cached_full_slice_ends_the_results_then_should_have_no_next() {
+            final String expressionToLookFor = "500g";
+            final Pageable theFirstPage = PageRequest.of(0, 2, ORDER_BY_SEQUENCE_CODE_DESC);
+            final Pageable theRowPastIt = PageRequest.of(2, 1, ORDER_BY_SEQUENCE_CODE_DESC);
+            given(productCacheManager.sync(anyString(), any(Supplier.class)))
+                .willReturn(Optional.of(Utility.getAllContaining().subList(0, 2)));
+            given(productRepositoryMock.findSliceBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theRowPastIt)))
+                .willReturn(new SliceImpl<>(Collections.emptyList(), theRowPastIt, false));
+
+            final Slice<Product> actualSlice =
+                productServiceUnderTest.findSliceByDescriptionIgnoreCaseContaining(expressionToLookFor, theFirstPage);
+
+            assertThat(actualSlice.getContent()).hasSize(2);
+            assertThat(actualSlice.hasNext()).isFalse();
+
+            verify(productRepositoryMock, times(1))
+                .findSliceBySearchKeyContaining(eq(expressionToLookFor.toUpperCase()), eq(theRowPastIt));
+            verifyNoMoreInteractions(productRepositoryMock);
+        }
     }
 
     @Nested
@@ -347,9 +574,9 @@ public class ProductServiceTest {
         void should_return_a_page_with_three_products_that_start_with_bisc() {
             final Pageable firstPageWithThreeProducts = PageRequest.of(0, 3, ORDER_BY_DESCRIPTION_ASC);
             final String startsWith = "bisc";
-            final String key = startsWith+"-pag=0-3";
+            final String key = "starts-with:"+startsWith+"-pag=0-3";
             given(productRepositoryMock
-                .findAllByDescriptionIgnoreCaseStartingWith(eq(startsWith), eq(firstPageWithThreeProducts)))
+                .findAllBySearchKeyStartingWith(eq(startsWith.toUpperCase()), eq(firstPageWithThreeProducts)))
                 .willReturn(Utility.createPage(Utility.getAllStartingWith()));
             given(productCacheManager.sync(eq(key), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
@@ -371,7 +598,7 @@ public class ProductServiceTest {
             assertThat(isCached).isTrue();
 
             verify(productRepositoryMock, times(1))
-                .findAllByDescriptionIgnoreCaseStartingWith(eq(startsWith), eq(firstPageWithThreeProducts));
+                .findAllBySearchKeyStartingWith(eq(startsWith.toUpperCase()), eq(firstPageWithThreeProducts));
             verify(productCacheManager, times(1)).sync(eq(key), any(Supplier.class));
             verify(productCacheManager, times(1)).containsKey(eq(key));
             verifyNoMoreInteractions(productRepositoryMock, productCacheManager);
@@ -383,9 +610,9 @@ public class ProductServiceTest {
         void should_return_an_empty_page_when_startsWith_does_not_match_anything() {
             final Pageable firstPageWithTwoProducts = PageRequest.of(0, 2, ORDER_BY_DESCRIPTION_ASC);
             final String startsWith = "pao";
-            final String key = startsWith+"-pag=0-2";
+            final String key = "starts-with:"+startsWith+"-pag=0-2";
             given(productRepositoryMock
-                .findAllByDescriptionIgnoreCaseStartingWith(eq(startsWith), eq(firstPageWithTwoProducts)))
+                .findAllBySearchKeyStartingWith(eq(startsWith.toUpperCase()), eq(firstPageWithTwoProducts)))
                 .willReturn(Utility.createPage(Collections.emptyList()));
             given(productCacheManager.sync(eq(key), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
@@ -400,7 +627,7 @@ public class ProductServiceTest {
             assertThat(isCached).isFalse();
 
             verify(productRepositoryMock, times(1))
-                .findAllByDescriptionIgnoreCaseStartingWith(eq(startsWith), eq(firstPageWithTwoProducts));
+                .findAllBySearchKeyStartingWith(eq(startsWith.toUpperCase()), eq(firstPageWithTwoProducts));
             verify(productCacheManager, times(1)).sync(eq(key), any(Supplier.class));
             verify(productCacheManager, times(1)).containsKey(eq(key));
             verifyNoMoreInteractions(productRepositoryMock, productCacheManager);
@@ -412,7 +639,7 @@ public class ProductServiceTest {
         void should_return_an_empty_page_when_startsWith_is_an_empty_value() {
             final Pageable firstPageWithTwoProducts = PageRequest.of(0, 2, ORDER_BY_DESCRIPTION_ASC);
             final String startsWith = "";
-            final String key = startsWith+"-pag=0-2";
+            final String key = "starts-with:"+startsWith+"-pag=0-2";
             given(productCacheManager.containsKey(eq(key))).willReturn(false);;
 
             final Page<Product> actualPage = productServiceUnderTest
@@ -435,16 +662,17 @@ public class ProductServiceTest {
 
         private final Pageable FIRST_PAGE_WITH_TWO_PRODUCTS =
             PageRequest.of(0, 2).withSort(Sort.by("description").ascending());
+        private final Pageable FIRST_PAGE_IN_SEARCH_KEY_ORDER = PageRequest.of(0, 2, Sort.by("searchKey", "barcode"));
 
         @Test
         @DisplayName("Should return two pages with two products that end with choc")
         void should_return_two_pages_with_two_products_that_end_with_choc() {
             final String endsWith = "choc";
-            final String key = endsWith+"-pag=0-2";
+            final String key = "ends-with:"+endsWith+"-pag=0-2";
             given(productCacheManager.sync(eq(key), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
             given(productCacheManager.containsKey(eq(key))).willReturn(true);
-            given(productRepositoryMock.findAllByDescriptionIgnoreCaseEndingWith(eq(endsWith), eq(FIRST_PAGE_WITH_TWO_PRODUCTS)))
+            given(productRepositoryMock.findAllBySearchKeyEndingWith(eq(endsWith.toUpperCase()), eq(FIRST_PAGE_IN_SEARCH_KEY_ORDER)))
                 .willReturn(Utility.createPage(Utility.getAllEndingWith()));
 
             final Page<Product> actualPage =
@@ -461,7 +689,7 @@ public class ProductServiceTest {
             assertThat(isCached).isTrue();
 
             verify(productRepositoryMock, times(1))
-                .findAllByDescriptionIgnoreCaseEndingWith(eq(endsWith), eq(FIRST_PAGE_WITH_TWO_PRODUCTS));
+                .findAllBySearchKeyEndingWith(eq(endsWith.toUpperCase()), eq(FIRST_PAGE_IN_SEARCH_KEY_ORDER));
             verify(productCacheManager, times(1)).containsKey(eq(key));
             verify(productCacheManager, times(1)).sync(eq(key), any(Supplier.class));
             verifyNoMoreInteractions(productRepositoryMock, productCacheManager);
@@ -494,12 +722,12 @@ public class ProductServiceTest {
         @DisplayName("When endsWith does not match anything then should return an empty page")
         void when_endsWith_does_not_match_anything_then_should_return_an_empty_page() {
             final String endsWith = "carrot";
-            final String key = endsWith+"-pag=0-2";
+            final String key = "ends-with:"+endsWith+"-pag=0-2";
             given(productCacheManager.sync(eq(key), any(Supplier.class)))
                 .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
             given(productCacheManager.containsKey(eq(key))).willReturn(false);
             given(productRepositoryMock
-                .findAllByDescriptionIgnoreCaseEndingWith(eq(endsWith), eq(FIRST_PAGE_WITH_TWO_PRODUCTS)))
+                .findAllBySearchKeyEndingWith(eq(endsWith.toUpperCase()), eq(FIRST_PAGE_IN_SEARCH_KEY_ORDER)))
                 .willReturn(Utility.createPage(Collections.emptyList()));
 
             final Page<Product> actualPage = productServiceUnderTest
@@ -513,7 +741,7 @@ public class ProductServiceTest {
             verify(productCacheManager, times(1)).sync(eq(key), any(Supplier.class));
             verify(productCacheManager, times(1)).containsKey(eq(key));
             verify(productRepositoryMock, times(1))
-                .findAllByDescriptionIgnoreCaseEndingWith(eq(endsWith), eq(FIRST_PAGE_WITH_TWO_PRODUCTS));
+                .findAllBySearchKeyEndingWith(eq(endsWith.toUpperCase()), eq(FIRST_PAGE_IN_SEARCH_KEY_ORDER));
             verifyNoMoreInteractions(productRepositoryMock, productCacheManager);
             verifyNoInteractions(productExternalServiceMock);
         }
@@ -545,4 +773,19 @@ public class ProductServiceTest {
             return getAllByFiltering(description -> description.endsWith("choc"));
         }
     }
+
+    @Test
+    @DisplayName("Should warm a page up without recording it as a query")
+    void when_warming_a_page_up_then_should_not_record_it_in_the_query_history() {
+        final Pageable firstPage = PageRequest.of(0, 5, Sort.by("description"));
+        given(productRepositoryMock.findAll(eq(firstPage)))
+            .willReturn(new PageImpl<>(Resources.PRODUCTS_SAMPLE.subList(0, 5), firstPage, 16));
+        given(productCacheManager.sync(anyString(), any(Supplier.class)))
+            .willAnswer(invocation -> Optional.of(invocation.getArgument(1, Supplier.class).get()));
+
+        productServiceUnderTest.warmUp(new QueryHistory.RecentQuery("listing", "all", firstPage));
+
+        assertThat(queryHistory.mostFrequent(10)).isEmpty();
+        verify(productRepositoryMock, times(1)).findAll(eq(firstPage));
+    }
 }
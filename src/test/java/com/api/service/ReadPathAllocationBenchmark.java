@@ -0,0 +1,91 @@
+package com.api.service;
+
+import com.api.entity.Price;
+import com.api.repository.PriceRepository;
+import com.api.repository.ProductRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against the same database as the integration tests, with ./gradlew benchmark
+@SpringBootTest
+@Tag("benchmark")
+@Log4j2
+public class ReadPathAllocationBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 500;
+    private static final int MEASURED_ROUNDS = 2_000;
+    private static final String BARCODE = "7891000055120";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void price_history_page_through_entities_and_through_a_projection() {
+        final Pageable pageable = PageRequest.of(0, 10, Sort.by("instant").descending());
+
+        final long bytesThroughEntities = bytesAllocatedPerRound(true, () ->
+            entityManager
+                .createQuery("SELECT pri FROM Price pri WHERE pri.product.barcode = :barcode ORDER BY pri.instant DESC", Price.class)
+                .setParameter("barcode", BARCODE)
+                .setMaxResults(pageable.getPageSize())
+                .getResultList()
+                .stream()
+                .map(Price::toPriceWithInstant)
+                .collect(Collectors.toList())
+        );
+        final long bytesThroughProjection = bytesAllocatedPerRound(true, () ->
+            priceRepository.findAllPricesWithInstantByProductBarcode(BARCODE, pageable)
+        );
+
+        log.info("Price history page: "+bytesThroughEntities+" bytes through entities, "+bytesThroughProjection+" through a projection");
+        assertThat(bytesThroughProjection).isLessThan(bytesThroughEntities);
+    }
+
+    @Test
+    void product_listing_page_in_a_read_write_and_in_a_read_only_transaction() {
+        final Pageable pageable = PageRequest.of(0, 20, Sort.by("description"));
+
+        final long bytesInReadWrite = bytesAllocatedPerRound(false, () -> productRepository.findAll(pageable));
+        final long bytesInReadOnly = bytesAllocatedPerRound(true, () -> productRepository.findAll(pageable));
+
+        log.info("Product listing page: "+bytesInReadWrite+" bytes read-write, "+bytesInReadOnly+" read-only");
+        assertThat(bytesInReadOnly).isLessThan(bytesInReadWrite);
+    }
+
+    // Every round is a transaction of its own, the way a request that misses the cache runs
+    private long bytesAllocatedPerRound(final boolean readOnly, final Supplier<?> read) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) transactionTemplate.execute(status -> read.get());
+
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int round = 0; round < MEASURED_ROUNDS; round++) transactionTemplate.execute(status -> read.get());
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / MEASURED_ROUNDS;
+    }
+}
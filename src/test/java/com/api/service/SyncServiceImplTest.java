@@ -0,0 +1,64 @@
+package com.api.service;
+
+import com.api.projection.PriceChange;
+import com.api.projection.ProductChange;
+import com.api.projection.SyncCursor;
+import com.api.projection.SyncDelta;
+import com.api.repository.PriceRepository;
+import com.api.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+public class SyncServiceImplTest {
+
+    private static final Instant WATERMARK = Instant.parse("2022-06-10T08:00:00Z");
+    private static final Instant LEGACY_UPDATE = Instant.parse("2022-06-10T09:00:00Z");
+
+    private final ProductRepository productRepositoryMock = mock(ProductRepository.class);
+    private final PriceRepository priceRepositoryMock = mock(PriceRepository.class);
+    private final SyncServiceImpl syncServiceUnderTest = new SyncServiceImpl(productRepositoryMock, priceRepositoryMock, 2);
+
+    @Test
+    void when_a_table_fills_the_page_then_should_hand_out_a_cursor_past_its_last_row_instead_of_a_watermark() {
+        final ProductChange firstChange = new ProductChange(new UUID(0, 1), LEGACY_UPDATE, "ACHOC PO NESCAU 800G", 29250, "7891000055120");
+        final ProductChange secondChange = new ProductChange(new UUID(0, 2), LEGACY_UPDATE, "OLEO MILHO LIZA 900ML", 4127, "7896036090244");
+        given(productRepositoryMock.findAllUpdatedAfter(eq(WATERMARK), any(), any(), eq(PageRequest.ofSize(2))))
+            .willReturn(List.of(firstChange, secondChange));
+        given(priceRepositoryMock.findAllAddedAfter(eq(WATERMARK), any(), any(), eq(PageRequest.ofSize(2))))
+            .willReturn(List.of(new PriceChange(new UUID(0, 3), "7891000055120", new BigDecimal("16.5"), LEGACY_UPDATE)));
+
+        final SyncDelta actualDelta = syncServiceUnderTest.findChangesSince(WATERMARK);
+        final SyncCursor actualCursor = SyncCursor.valueOf(actualDelta.getCursor());
+
+        assertThat(actualDelta.getProducts()).hasSize(2);
+        assertThat(actualDelta.getPrices()).hasSize(1);
+        assertThat(actualDelta.getWatermark()).isNull();
+        assertThat(actualCursor.getProductInstant()).isEqualTo(LEGACY_UPDATE);
+        assertThat(actualCursor.getProductId()).isEqualTo(secondChange.getId());
+        assertThat(actualCursor.getPriceInstant()).isEqualTo(LEGACY_UPDATE);
+        assertThat(actualCursor.getPriceId()).isEqualTo(new UUID(0, 3));
+    }
+
+    @Test
+    void when_both_tables_are_caught_up_then_should_hand_out_the_upper_bound_as_the_watermark() {
+        final SyncCursor cursor = new SyncCursor(LEGACY_UPDATE.plusSeconds(60), LEGACY_UPDATE, new UUID(0, 2), WATERMARK, new UUID(0, 3));
+        given(productRepositoryMock.findAllUpdatedAfter(eq(LEGACY_UPDATE), eq(new UUID(0, 2)), eq(cursor.getUpTo()), any()))
+            .willReturn(Collections.emptyList());
+        given(priceRepositoryMock.findAllAddedAfter(eq(WATERMARK), eq(new UUID(0, 3)), eq(cursor.getUpTo()), any()))
+            .willReturn(Collections.emptyList());
+
+        final SyncDelta actualDelta = syncServiceUnderTest.findChangesAfter(cursor);
+
+        assertThat(actualDelta.getCursor()).isNull();
+        assertThat(actualDelta.getWatermark()).isEqualTo(cursor.getUpTo());
+    }
+}
@@ -0,0 +1,32 @@
+package com.api.utility;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheLinksTest {
+
+    private static final String ACCENTED_DESCRIPTION = "PÃO FRANCÊS 500G";
+
+    @Test
+    void when_an_accented_product_is_new_then_should_affect_the_contains_pages_it_now_matches() {
+        final String containsLink = CacheLinks.ofPage(CacheLinks.CONTAINS, "pao", PageRequest.of(0, 10));
+        final String accentedContainsLink = CacheLinks.ofPage(CacheLinks.CONTAINS, "francês", PageRequest.of(0, 10));
+        final String unrelatedContainsLink = CacheLinks.ofPage(CacheLinks.CONTAINS, "pera", PageRequest.of(0, 10));
+
+        assertThat(CacheLinks.mayListDescription(containsLink, ACCENTED_DESCRIPTION)).isTrue();
+        assertThat(CacheLinks.mayListDescription(accentedContainsLink, ACCENTED_DESCRIPTION)).isTrue();
+        assertThat(CacheLinks.mayListDescription(unrelatedContainsLink, ACCENTED_DESCRIPTION)).isFalse();
+    }
+
+    @Test
+    void when_an_accented_product_is_new_then_should_affect_the_ends_with_pages_it_now_matches() {
+        final String endsWithLink = CacheLinks.ofPage(CacheLinks.ENDS_WITH, "frances 500g", PageRequest.of(0, 10));
+        final String prefixOnlyLink = CacheLinks.ofPage(CacheLinks.ENDS_WITH, "pao", PageRequest.of(0, 10));
+
+        assertThat(CacheLinks.affectedBy("7891000000001", ACCENTED_DESCRIPTION, true).test(endsWithLink)).isTrue();
+        assertThat(CacheLinks.affectedBy("7891000000001", ACCENTED_DESCRIPTION, true).test(prefixOnlyLink)).isFalse();
+        assertThat(CacheLinks.affectedBy("7891000000001", ACCENTED_DESCRIPTION, false).test(endsWithLink)).isFalse();
+    }
+}